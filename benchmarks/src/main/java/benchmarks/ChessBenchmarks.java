@@ -0,0 +1,99 @@
+package benchmarks;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the chess rules the server runs on every move
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChessBenchmarks {
+    // 1. e4 e5 2. Nf3 Nc6 3. Bc4 Nf6, which gives no checks along the way
+    private static final ChessMove[] OPENING = {
+            move(2, 5, 4, 5), move(7, 5, 5, 5),
+            move(1, 7, 3, 6), move(8, 2, 6, 3),
+            move(1, 6, 4, 3), move(8, 7, 6, 6)
+    };
+    // 1. e4 e5 2. Bc4 Nc6 3. Qh5 Nf6 4. Qxf7#
+    private static final ChessMove[] SCHOLARS_MATE = {
+            move(2, 5, 4, 5), move(7, 5, 5, 5),
+            move(1, 6, 4, 3), move(8, 2, 6, 3),
+            move(1, 4, 5, 8), move(8, 7, 6, 6),
+            move(5, 8, 7, 6)
+    };
+
+    private ChessGame midgame;
+    private ArrayList<ChessPosition> midgamePieces;
+    private ChessGame checkmate;
+    private final MoveList moves = new MoveList();
+
+    @Setup
+    public void setUp() {
+        midgame = new ChessGame();
+        midgame.setBoard(ChessBoard.fromFen(Perft.REFERENCE_POSITIONS.get(3).fen()));
+        midgamePieces = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                var piece = midgame.getBoard().getPiece(ChessPosition.of(row, col));
+                if (piece != null && piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
+                    midgamePieces.add(ChessPosition.of(row, col));
+                }
+            }
+        }
+
+        checkmate = new ChessGame();
+        for (var move : SCHOLARS_MATE) {
+            try {
+                checkmate.makeMove(move);
+            } catch (InvalidMoveException e) {
+                // The last move reports "Checkmate!"
+            }
+        }
+    }
+
+    @Benchmark
+    public ChessGame makeMoveOpening() throws InvalidMoveException {
+        var game = new ChessGame();
+        for (var move : OPENING) {
+            game.makeMove(move);
+        }
+        return game;
+    }
+
+    @Benchmark
+    public void validMovesMidgame(Blackhole blackhole) {
+        for (var position : midgamePieces) {
+            blackhole.consume(midgame.validMoves(position));
+        }
+    }
+
+    @Benchmark
+    public int legalMovesMidgame() {
+        moves.clear();
+        midgame.legalMoves(moves);
+        return moves.size();
+    }
+
+    @Benchmark
+    public boolean isInCheckmateMated() {
+        return checkmate.isInCheckmate(ChessGame.TeamColor.BLACK);
+    }
+
+    @Benchmark
+    public boolean isInCheckmateMidgame() {
+        return midgame.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+    }
+}
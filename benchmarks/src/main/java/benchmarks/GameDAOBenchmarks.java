@@ -0,0 +1,70 @@
+package benchmarks;
+
+import chess.ChessGame;
+import dataAccess.memory.MemoryGameDAO;
+import model.GameData;
+import model.GameQuery;
+import model.GameResponseData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the in-memory game DAO operations behind each request
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameDAOBenchmarks {
+    private static final int GAMES = 1000;
+
+    private MemoryGameDAO gameDAO;
+    private GameData[] games;
+    private int next;
+    private int added;
+
+    @Setup
+    public void setUp() {
+        gameDAO = new MemoryGameDAO();
+        games = new GameData[GAMES];
+        for (int i = 0; i < GAMES; i++) {
+            games[i] = new GameData(i, "white" + i, null, "game" + i, new ChessGame());
+            gameDAO.addGame(games[i]);
+        }
+    }
+
+    private int nextID() {
+        next = (next + 1) % GAMES;
+        return next;
+    }
+
+    @Benchmark
+    public GameData getGame() {
+        return gameDAO.getGame(nextID());
+    }
+
+    @Benchmark
+    public void updateGame() {
+        gameDAO.updateGame(games[nextID()]);
+    }
+
+    @Benchmark
+    public ArrayList<GameResponseData> listAllGameSummaries() {
+        return gameDAO.listGameSummaries(GameQuery.all());
+    }
+
+    @Benchmark
+    public ArrayList<GameResponseData> listGameSummaries() {
+        return gameDAO.listGameSummaries(GameQuery.page(100));
+    }
+
+    @Benchmark
+    public boolean addGame() {
+        // Games can't be replaced, so each call adds a new ID past the ones set up
+        return gameDAO.addGame(new GameData(GAMES + added++, null, null, "game", new ChessGame()));
+    }
+}
@@ -0,0 +1,86 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.GameCodec;
+import chess.Perft;
+import com.google.gson.Gson;
+import model.GameData;
+import org.openjdk.jmh.annotations.*;
+import webSocketMessages.serverMessages.LoadGameMessage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the Gson serialization used for stored games and WebSocket messages
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmarks {
+    private final Gson gson = new Gson();
+    private ChessGame game;
+    private String gameJson;
+    private byte[] gameState;
+    private GameData gameData;
+    private String gameDataJson;
+    private LoadGameMessage loadGameMessage;
+
+    @Setup
+    public void setUp() {
+        game = new ChessGame();
+        game.setBoard(ChessBoard.fromFen(Perft.REFERENCE_POSITIONS.get(3).fen()));
+        gameJson = gson.toJson(game);
+        gameState = GameCodec.encode(game);
+        gameData = new GameData(1234, "white", "black", "benchmark", game);
+        gameDataJson = gson.toJson(gameData);
+        loadGameMessage = new LoadGameMessage(gameData);
+        loadGameMessage.setColor(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public String chessGameToJson() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame chessGameFromJson() {
+        return gson.fromJson(gameJson, ChessGame.class);
+    }
+
+    @Benchmark
+    public byte[] chessGameEncode() {
+        return GameCodec.encode(game);
+    }
+
+    @Benchmark
+    public ChessGame chessGameDecode() {
+        return GameCodec.decode(gameState);
+    }
+
+    @Benchmark
+    public String gameDataToJson() {
+        return gson.toJson(gameData);
+    }
+
+    @Benchmark
+    public GameData gameDataFromJson() {
+        return gson.fromJson(gameDataJson, GameData.class);
+    }
+
+    @Benchmark
+    public String loadGameMessageToJson() {
+        return gson.toJson(loadGameMessage);
+    }
+
+    /**
+     * The server builds a new Gson for every message it sends, so measure that too
+     */
+    @Benchmark
+    public String loadGameMessageToJsonNewGson() {
+        return new Gson().toJson(loadGameMessage);
+    }
+}
@@ -7,7 +7,7 @@ public class ClientMain {
         if (args.length == 1) {
             serverUrl = args[0];
         }
-        var piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        var piece = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
         System.out.println("♕ 240 Chess Client: " + piece);
 
         new Repl(serverUrl).run();
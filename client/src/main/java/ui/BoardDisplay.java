@@ -88,7 +88,7 @@ public class BoardDisplay {
             out.print(row + 1);
             out.print(" ");
             for (int col = 0; col < 8; col++) {
-                ChessPosition endPos = new ChessPosition(row + 1, 8 - col);
+                ChessPosition endPos = ChessPosition.of(row + 1, 8 - col);
                 ChessPiece piece = board.getPiece(endPos);
                 ChessMove move = new ChessMove(start, endPos, null);
 
@@ -136,7 +136,7 @@ public class BoardDisplay {
             out.print(BOARD_SIZE_IN_SQUARES - row);
             out.print(" ");
             for (int col = 0; col < 8; col++) {
-                ChessPosition newPos = new ChessPosition(8 - row, col + 1);
+                ChessPosition newPos = ChessPosition.of(8 - row, col + 1);
                 ChessPiece piece = board.getPiece(newPos);
                 ChessMove move = new ChessMove(start, newPos, null);
 
@@ -247,7 +247,7 @@ public class BoardDisplay {
                     out.print(SET_BG_COLOR_BLACK);
                 }
 
-                ChessPiece piece = board.getPiece(new ChessPosition(8 - row, col + 1));
+                ChessPiece piece = board.getPiece(ChessPosition.of(8 - row, col + 1));
                 printNull(out, piece);
             }
             out.print(SET_TEXT_COLOR_BLACK);
@@ -279,7 +279,7 @@ public class BoardDisplay {
                     out.print(SET_BG_COLOR_BLACK);
                 }
 
-                ChessPiece piece = board.getPiece(new ChessPosition(row + 1, 8 - col));
+                ChessPiece piece = board.getPiece(ChessPosition.of(row + 1, 8 - col));
                 printNull(out, piece);
             }
             out.print(SET_TEXT_COLOR_BLACK);
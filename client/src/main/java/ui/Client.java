@@ -14,8 +14,8 @@ import websocket.WebSocketFacade;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static ui.EscapeSequences.*;
 
@@ -28,7 +28,6 @@ public class Client {
     private final String serverUrl;
     private final NotificationHandler repl;
     private ArrayList<GameResponseData> allGames;
-    private ConcurrentHashMap<Integer, GameData> gameObjects;
     private final WebSocketFacade ws;
     private GameData game;
     private ChessGame.TeamColor teamColor;
@@ -103,7 +102,7 @@ public class Client {
             throw new ResponseException(400, "Only available in game");
         }
         var startPos = parsePosition(params[0]);
-        updateGames();
+        game = server.getGame(game.gameID());
         BoardDisplay.highlight(game.game(), teamColor, startPos);
         return "";
     }
@@ -142,7 +141,7 @@ public class Client {
         }
         var col = pos.charAt(0) - 96;
         var row = pos.charAt(1) - 48;
-        return new ChessPosition(row, col);
+        return ChessPosition.of(row, col);
     }
 
     /**
@@ -196,7 +195,7 @@ public class Client {
             updateGames();
             int idx = Integer.parseInt(params[0]);
             int gameID = allGames.get(idx - 1).gameID();
-            game = gameObjects.get(gameID);
+            game = server.getGame(gameID);
 
             ChessGame.TeamColor color = parseColor(params.length == 2 ? params[1].toLowerCase() : null);
             if (color == null) {
@@ -230,7 +229,7 @@ public class Client {
             updateGames();
             int idx = Integer.parseInt(params[0]);
             int gameID = allGames.get(idx - 1).gameID();
-            game = gameObjects.get(gameID);
+            game = server.getGame(gameID);
 
             server.joinGame(new JoinRequest(game.gameID(), null));
             ws.joinPlayer(authData.authToken(), game.gameID(), null);
@@ -379,38 +378,19 @@ public class Client {
     private void updateGames() {
         try {
             var newGames = server.listGames();
-            gameObjects = server.getGameObjects();
-            ArrayList<GameResponseData> tempGames = new ArrayList<>();
 
+//            Games keep the numbers they were listed with; new ones are numbered after them
+            LinkedHashMap<Integer, GameResponseData> merged = new LinkedHashMap<>();
             if (allGames != null) {
                 for (var currGame : allGames) {
-                    for (var newGame : newGames) {
-                        if (Objects.equals(newGame.gameID(), currGame.gameID())) {
-                            tempGames.add(newGame);
-                        }
-                    }
-                }
-                for (var newGame : newGames) {
-                    boolean found = false;
-                    for (var currGame : allGames) {
-                        if (Objects.equals(newGame.gameID(), currGame.gameID())) {
-                            found = true;
-                            break;
-                        }
-                    }
-
-                    if (!found) {
-                        tempGames.add(newGame);
-                    }
+                    merged.put(currGame.gameID(), null);
                 }
-            } else {
-                tempGames = newGames;
             }
-            allGames = tempGames;
-
-            if (game != null) {
-                game = gameObjects.get(game.gameID());
+            for (var newGame : newGames) {
+                merged.put(newGame.gameID(), newGame);
             }
+            merged.values().removeIf(Objects::isNull);
+            allGames = new ArrayList<>(merged.values());
         } catch (ResponseException e) {
             System.out.println(e.getMessage());
         }
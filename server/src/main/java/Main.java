@@ -5,18 +5,26 @@ public class Main {
     public static void main(String[] args) {
         try {
             var port = 8080;
-            if (args.length >= 1) {
-                port = Integer.parseInt(args[0]);
+            var inMemory = false;
+//            Arguments are an optional port and --memory to run without a database
+            for (var arg : args) {
+                if (arg.equals("--memory")) {
+                    inMemory = true;
+                } else {
+                    port = Integer.parseInt(arg);
+                }
             }
 
-            var server = new Server();
+            var server = new Server(inMemory);
             server.run(port);
+//            Write out any games still waiting to be saved when the server is shut down
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
             port = server.port();
-            System.out.printf("Server started on port %d%n", port);
+            System.out.printf("Server started on port %d%s%n", port, inMemory ? " (in memory)" : "");
         } catch (Throwable e) {
             System.out.printf("Unable to start server: %s%n", e.getMessage());
         }
-        var piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        var piece = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
         System.out.println("♕ 240 Chess Server: " + piece);
     }
-}
\ No newline at end of file
+}
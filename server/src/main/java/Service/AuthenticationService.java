@@ -21,24 +21,21 @@ public class AuthenticationService {
     }
 
     /**
-     * Authenticates a token, throwing an exception if the authorization token is invalid
+     * Looks up the AuthData for a token in a single lookup, authenticating the request
+     * and telling who made it
      * @param authToken a String of the authToken provided in the HTTP header
-     * @throws ResponseException Indicating that the authToken is not valid
+     * @return AuthData object associated with the token
+     * @throws ResponseException Indicating that the authToken is missing, unknown or expired
+     * @throws DataAccessException If the token couldn't be looked up, which isn't the client's fault
      */
-    public boolean authenticate(String authToken) throws ResponseException, DataAccessException {
-        if (!this.authDAO.authExists(authToken)) {
+    public AuthData resolve(String authToken) throws ResponseException, DataAccessException {
+        if (authToken == null) {
             throw new ResponseException(401, "error: unauthorized");
-        } else {
-            return true;
         }
-    }
-
-    /**
-     * Returns the AuthData object associated with a given authToken
-     * @param authToken the String of an authToken
-     * @return AuthData object associated
-     */
-    public AuthData getAuthData(String authToken) throws DataAccessException {
-        return authDAO.getAuth(authToken);
+        AuthData authData = authDAO.getAuth(authToken);
+        if (authData == null) {
+            throw new ResponseException(401, "error: unauthorized");
+        }
+        return authData;
     }
 }
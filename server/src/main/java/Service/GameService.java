@@ -1,6 +1,7 @@
 package Service;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import dataAccess.DataAccessException;
 import dataAccess.GameDAO;
 import handlers.CreateGameRequest;
@@ -13,6 +14,13 @@ import java.util.Random;
  * Handles requests to create new games
  */
 public class GameService {
+    /**
+     * How many times to read a game and try a change again when someone else changes it first
+     */
+    public static final int UPDATE_ATTEMPTS = 5;
+//    IDs are picked at random, so a few tries are plenty unless nearly every ID is taken
+    private static final int CREATE_ATTEMPTS = 10;
+
     private final GameDAO gameDAO;
 
     /**
@@ -25,29 +33,33 @@ public class GameService {
 
     /**
      * Creates a new game using the data stored in a CreateGameRequest object.
-     * Generates a random number to use as the gameID
+     * Generates a random number to use as the gameID, trying another if it's taken
      * Initializes a new ChessGame and new GameData object to represent the game
      * @param newGame an object containing the name of the new game
      * @return GameID object containing the gameID for the new game
+     * @throws DataAccessException if no free gameID turns up, or the database fails
      */
     public GameID createGame(CreateGameRequest newGame) throws DataAccessException {
-//        Generate the game ID
         Random random = new Random();
-        int gameID = random.nextInt(1000000);
-
-//        Initialize a new game
-        ChessGame game = new ChessGame();
-        GameData gameData = new GameData(
-                gameID,
-                null,
-                null,
-                newGame.gameName(),
-                game
-        );
-//        Add the game to the database
-        this.gameDAO.addGame(gameData);
-
-        return new GameID(gameID);
+        for (int attempt = 0; attempt < CREATE_ATTEMPTS; attempt++) {
+//            Generate the game ID
+            int gameID = random.nextInt(1000000);
+
+//            Initialize a new game
+            ChessGame game = new ChessGame();
+            GameData gameData = new GameData(
+                    gameID,
+                    null,
+                    null,
+                    newGame.gameName(),
+                    game
+            );
+//            Add the game to the database, unless the ID is already used by another game
+            if (this.gameDAO.addGame(gameData)) {
+                return new GameID(gameID);
+            }
+        }
+        throw new DataAccessException("Unable to find a free game ID");
     }
 
 
@@ -55,7 +67,35 @@ public class GameService {
         return gameDAO.getGame(gameID);
     }
 
-    public void updateGame(GameData game) throws DataAccessException {
-        gameDAO.updateGame(game);
+    /**
+     * Saves a changed game, if nobody else changed it since it was read
+     * @param game the changed game
+     * @param expectedVersion the version the game was read at
+     * @return true if it was saved; false if it changed first, so it should be read again and retried
+     */
+    public boolean updateGame(GameData game, int expectedVersion) throws DataAccessException {
+        return gameDAO.updateGame(game, expectedVersion);
+    }
+
+    /**
+     * Saves a move that has been made in a game, if nobody else changed the game since it
+     * was read. Normally only the move is logged; a finished game also gets a full snapshot
+     * so its result is stored
+     * @param gameData the game, with the move already made
+     * @param move the move that was made
+     * @param expectedVersion the version the game was read at
+     * @return true if it was saved; false if the game changed first, so it should be read again and retried
+     */
+    public boolean recordMove(GameData gameData, ChessMove move, int expectedVersion) throws DataAccessException {
+        return gameDAO.appendMove(gameData, move, expectedVersion);
+    }
+
+    /**
+     * Makes an ETag for a game from its version, which goes up with every change
+     * @param gameData the game
+     * @return the ETag, quoted as it goes in a header
+     */
+    public static String etag(GameData gameData) {
+        return "\"" + gameData.version() + "\"";
     }
 }
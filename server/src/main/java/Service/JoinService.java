@@ -26,42 +26,53 @@ public class JoinService {
     /**
      * Joins a game using the data from the request to join the game
      * as well as the username found from authenticating the user.
+     * If someone else changes the game between reading and saving it, it's read again and
+     * the seat checked again, so two players can't both take the same seat
      * @param request JoinGameRequest object, containing playerColor and gameID
      * @param authData AuthData object used to get the player's username
-     * @throws ResponseException if (a) game doesn't exist, (b) color is already taken, or (c) color is invalid
+     * @throws ResponseException if (a) game doesn't exist, (b) color is already taken, (c) color is invalid,
+     * or (d) the game kept changing while trying to join
      */
     public void joinGame(JoinGameRequest request, AuthData authData) throws ResponseException, DataAccessException {
-//        Ensures that the game with the requested ID exists
-        GameData game = gameDAO.getGame(request.gameID());
-        if (game == null) {
-            throw new ResponseException(400, "error: bad request");
-        }
+        for (int attempt = 0; attempt < GameService.UPDATE_ATTEMPTS; attempt++) {
+//            Ensures that the game with the requested ID exists
+            GameData game = gameDAO.getGame(request.gameID());
+            if (game == null) {
+                throw new ResponseException(400, "error: bad request");
+            }
 
-//        Assigns the new usernames, making sure they haven't been taken already (also ensures valid color)
-        String whiteUsername = game.whiteUsername();
-        String blackUsername = game.blackUsername();
+//            Assigns the new usernames, making sure they haven't been taken already (also ensures valid color)
+            String whiteUsername = game.whiteUsername();
+            String blackUsername = game.blackUsername();
 
-        if (Objects.equals(request.playerColor(), "WHITE")) {
-            if (whiteUsername != null) {
-                throw new ResponseException(403, "error: already taken");
-            }
-            whiteUsername = authData.username();
-        } else if (Objects.equals(request.playerColor(), "BLACK")) {
-            if (blackUsername != null) {
-                throw new ResponseException(403, "error: already taken");
+            if (Objects.equals(request.playerColor(), "WHITE")) {
+                if (whiteUsername != null) {
+                    throw new ResponseException(403, "error: already taken");
+                }
+                whiteUsername = authData.username();
+            } else if (Objects.equals(request.playerColor(), "BLACK")) {
+                if (blackUsername != null) {
+                    throw new ResponseException(403, "error: already taken");
+                }
+                blackUsername = authData.username();
+            } else if (request.playerColor() != null) {
+                throw new ResponseException(400, "error: bad request");
+            } else {
+//                Observers don't change the game
+                return;
             }
-            blackUsername = authData.username();
-        } else if (request.playerColor() != null) {
-            throw new ResponseException(400, "error: bad request");
-        }
 
-        GameData newGame = new GameData(
-                request.gameID(),
-                whiteUsername,
-                blackUsername,
-                game.gameName(),
-                game.game());
+            GameData newGame = new GameData(
+                    request.gameID(),
+                    whiteUsername,
+                    blackUsername,
+                    game.gameName(),
+                    game.game());
 
-        gameDAO.updateGame(newGame);
+            if (gameDAO.updateGame(newGame, game.version())) {
+                return;
+            }
+        }
+        throw new ResponseException(409, "error: game changed, try again");
     }
 }
@@ -2,11 +2,11 @@ package Service;
 
 import dataAccess.DataAccessException;
 import dataAccess.GameDAO;
-import model.GameData;
+import handlers.ListGamesResponse;
+import model.GameQuery;
 import model.GameResponseData;
 
 import java.util.ArrayList;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Handles requests to list all the games in the database
@@ -23,30 +23,23 @@ public class ListService {
     }
 
     /**
-     * Returns a HashSet of all the GameResponseData
-     * Contains only the gameID, player usernames, and gameName (not the ChessGame object)
-     * @return Collection of GameResponseData containing data for all the games
+     * Returns one page of the games that match a query
+     * One more game than the page holds is fetched, so the last page is known to be the
+     * last without asking for an empty one after it. A query for every game is never
+     * more than one page
+     * @param query the filters, page size and where the page starts
+     * @return the page of games, with the gameID to start the next page after if there is one
      */
-    public ArrayList<GameResponseData> getGames() throws DataAccessException {
-        ArrayList<GameData> allGames = gameDAO.listGames();
-        ArrayList<GameResponseData> gameResponseData = new ArrayList<>();
-        for (var game : allGames) {
-            gameResponseData.add(new GameResponseData(
-                            game.gameID(), game.whiteUsername(),
-                            game.blackUsername(),
-                            game.gameName()));
+    public ListGamesResponse getGames(GameQuery query) throws DataAccessException {
+        if (query.limit() == Integer.MAX_VALUE) {
+            return new ListGamesResponse(gameDAO.listGameSummaries(query), null);
         }
-
-        return gameResponseData;
-    }
-
-    public ConcurrentHashMap<Integer, GameData> getGameObjects() throws DataAccessException {
-        ArrayList<GameData> allGames = gameDAO.listGames();
-        ConcurrentHashMap<Integer, GameData> gameData = new ConcurrentHashMap<>();
-        for (var game : allGames) {
-            gameData.put(game.gameID(), game);
+        ArrayList<GameResponseData> games = gameDAO.listGameSummaries(query.withLimit(query.limit() + 1));
+        Integer next = null;
+        if (games.size() > query.limit()) {
+            games.remove(games.size() - 1);
+            next = games.get(games.size() - 1).gameID();
         }
-
-        return gameData;
+        return new ListGamesResponse(games, next);
     }
 }
@@ -40,15 +40,10 @@ public class LoginService {
         if (userData == null) {
             throw new ResponseException(401, "error: unauthorized");
         }
-        boolean removed = this.authDAO.deleteAuth(userData.username());
         if (Objects.equals(userData.password(), loginRequest.password())) {
             return this.authDAO.createAuth(userData);
         } else {
             throw new ResponseException(401, "error: unauthorized");
         }
     }
-
-    public String getUser(String authToken) throws DataAccessException {
-        return authDAO.getAuth(authToken).username();
-    }
 }
@@ -4,7 +4,6 @@ import dataAccess.AuthDAO;
 import dataAccess.DataAccessException;
 import exception.ResponseException;
 import handlers.LogoutRequest;
-import model.AuthData;
 
 /**
  * Handles requests to log a user out
@@ -22,20 +21,13 @@ public class LogoutService {
 
     /**
      * Logs a user out, returning nothing
+     * Deleting the token is also the check that it exists, so logging out takes one call to the AuthDAO
      * @param authToken LogoutRequest object containing a string with the authToken of the user to be logged out
      * @throws ResponseException Indicates that the user is not authorized (provided invalid authToken)
+     * @throws DataAccessException If the database fails
      */
-    public void logoutUser(LogoutRequest authToken) throws ResponseException {
-        try {
-            AuthData authData = authDAO.getAuth(authToken.authToken());
-            if (authData == null) {
-                throw new ResponseException(401, "error: unauthorized");
-            }
-            boolean removed = authDAO.deleteAuth(authData.authToken());
-            if (!removed) {
-                throw new ResponseException(401, "error: unauthorized");
-            }
-        } catch (DataAccessException e) {
+    public void logoutUser(LogoutRequest authToken) throws ResponseException, DataAccessException {
+        if (authToken.authToken() == null || !authDAO.deleteAuth(authToken.authToken())) {
             throw new ResponseException(401, "error: unauthorized");
         }
     }
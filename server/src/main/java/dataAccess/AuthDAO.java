@@ -12,6 +12,8 @@ public interface AuthDAO {
 
     AuthData getAuth(String authToken) throws DataAccessException;
 
-    boolean deleteAuth(String username) throws DataAccessException;
+    boolean deleteAuth(String authToken) throws DataAccessException;
+
+    int deleteExpired(int limit) throws DataAccessException;
 
 }
@@ -0,0 +1,80 @@
+package dataAccess;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes expired authTokens in the background.
+ * Every period it deletes expired tokens in batches of batchSize, stopping after
+ * maxBatches so one run can't hold the database for long when there's a large
+ * backlog; whatever is left is picked up on the next run.
+ */
+public class AuthReaper implements AutoCloseable {
+    private final AuthDAO authDAO;
+    private final int batchSize;
+    private final int maxBatches;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a reaper, which doesn't run until it is started
+     * @param authDAO the AuthDAO to delete expired tokens from
+     * @param batchSize the most tokens to delete in one statement
+     * @param maxBatches the most batches to delete in one run
+     */
+    public AuthReaper(AuthDAO authDAO, int batchSize, int maxBatches) {
+        if (batchSize < 1 || maxBatches < 1) {
+            throw new IllegalArgumentException("Reaper batches must be at least 1");
+        }
+        this.authDAO = authDAO;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "auth-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts deleting expired tokens every period
+     * @param periodMillis how long to wait between runs
+     */
+    public void start(long periodMillis) {
+        scheduler.scheduleWithFixedDelay(this::runSafely, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Deletes expired tokens once, in batches
+     * @return how many tokens were deleted
+     * @throws DataAccessException if a batch fails; the batches before it stay deleted
+     */
+    public int reap() throws DataAccessException {
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int deleted = authDAO.deleteExpired(batchSize);
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Stops the reaper; a run in progress is interrupted
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void runSafely() {
+//        An exception would cancel every later run, so a failed run is reported and retried next period
+        try {
+            reap();
+        } catch (DataAccessException | RuntimeException e) {
+            System.out.printf("Unable to delete expired auth tokens: %s%n", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package dataAccess;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pool of database connections.
+ * DAOs borrow a connection for each operation and close it when they are done,
+ * which hands it back to the pool instead of closing it. At most maxSize
+ * connections are lent out at once; borrowers past that wait up to the timeout.
+ * Connections that have sat idle are checked with isValid before being lent out
+ * again, and any connection held longer than the leak threshold is reported
+ * once, optionally along with what the thread that borrowed it is doing.
+ */
+public class ConnectionPool implements AutoCloseable {
+    /**
+     * Opens a new physical connection to the database
+     */
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    // Connections idle for less than this are assumed to still be good
+    private static final long VALIDATE_AFTER_MILLIS = 1000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final ConnectionFactory factory;
+    private final long timeoutMillis;
+    private final long leakThresholdMillis;
+    private final boolean leakStacks;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<Idle> idle = new ConcurrentLinkedDeque<>();
+    private final Set<Lease> leased = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService leakDetector;
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool. No connections are opened until they are needed
+     * @param factory opens new connections
+     * @param maxSize the most connections that can be lent out at once
+     * @param timeoutMillis how long to wait for a connection before giving up
+     * @param leakThresholdMillis how long a connection can be held before it is reported, 0 to never report
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long timeoutMillis, long leakThresholdMillis) {
+        this(factory, maxSize, timeoutMillis, leakThresholdMillis, false);
+    }
+
+    /**
+     * Creates a pool. No connections are opened until they are needed
+     * @param factory opens new connections
+     * @param maxSize the most connections that can be lent out at once
+     * @param timeoutMillis how long to wait for a connection before giving up
+     * @param leakThresholdMillis how long a connection can be held before it is reported, 0 to never report
+     * @param leakStacks whether a report includes the borrowing thread's stack, which is
+     *                   only worth the noise while tracking a leak down
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long timeoutMillis, long leakThresholdMillis, boolean leakStacks) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Connection pool size must be at least 1");
+        }
+        this.factory = factory;
+        this.timeoutMillis = timeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.leakStacks = leakStacks;
+        this.permits = new Semaphore(maxSize, true);
+
+        if (leakThresholdMillis > 0) {
+            this.leakDetector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "connection-leak-detector");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(leakThresholdMillis / 2, 100);
+            this.leakDetector.scheduleAtFixedRate(this::reportLeaks, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.leakDetector = null;
+        }
+    }
+
+    /**
+     * Borrows a connection. Closing it returns it to the pool, so use it in a
+     * try-with-resources block
+     * @return a connection to the database
+     * @throws DataAccessException if no connection frees up in time or a new one can't be opened
+     */
+    public Connection getConnection() throws DataAccessException {
+        if (closed) {
+            throw new DataAccessException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new DataAccessException("Timed out waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted waiting for a database connection");
+        }
+
+        try {
+            var lease = new Lease(takeIdle());
+            leased.add(lease);
+            return lease.proxy;
+        } catch (SQLException e) {
+            permits.release();
+            throw new DataAccessException(e.getMessage());
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return how many connections are lent out right now
+     */
+    public int activeCount() {
+        return leased.size();
+    }
+
+    /**
+     * @return how many open connections are waiting to be borrowed
+     */
+    public int idleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Closes the idle connections and stops lending out new ones.
+     * Connections still borrowed are closed when they are returned
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (leakDetector != null) {
+            leakDetector.shutdownNow();
+        }
+        Idle connection;
+        while ((connection = idle.pollFirst()) != null) {
+            closeQuietly(connection.connection());
+        }
+    }
+
+    /**
+     * Reuses the most recently returned connection that is still good, or opens a new one
+     */
+    private Connection takeIdle() throws SQLException {
+        Idle connection;
+        while ((connection = idle.pollFirst()) != null) {
+            boolean fresh = System.currentTimeMillis() - connection.returnedAt() < VALIDATE_AFTER_MILLIS;
+            if (fresh || connection.connection().isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                return connection.connection();
+            }
+            closeQuietly(connection.connection());
+        }
+        return factory.create();
+    }
+
+    private void release(Lease lease) {
+        if (!leased.remove(lease)) {
+            return;
+        }
+        var connection = lease.connection;
+        try {
+            if (closed || connection.isClosed()) {
+                closeQuietly(connection);
+            } else {
+//                Don't hand the next borrower someone else's half-finished transaction
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                idle.offerFirst(new Idle(connection, System.currentTimeMillis()));
+            }
+        } catch (SQLException e) {
+            closeQuietly(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void reportLeaks() {
+        long now = System.currentTimeMillis();
+        for (var lease : leased) {
+            if (!lease.reported && now - lease.borrowedAt > leakThresholdMillis) {
+                lease.reported = true;
+                var report = new StringBuilder(String.format("Possible connection leak: connection held for %d ms by %s",
+                        now - lease.borrowedAt, lease.borrower.getName()));
+                if (leakStacks) {
+//                    The stack is only taken once a lease looks leaked, so borrowing stays cheap
+                    for (var frame : lease.borrower.getStackTrace()) {
+                        report.append(System.lineSeparator()).append("\tat ").append(frame);
+                    }
+                }
+//                One write, so the report isn't interleaved with other output
+                System.out.println(report);
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private record Idle(Connection connection, long returnedAt) {
+    }
+
+    /**
+     * A borrowed connection. Borrowers get a proxy whose close() returns the
+     * connection to the pool and which can't be used after that
+     */
+    private class Lease {
+        private final Connection connection;
+        private final Connection proxy;
+        private final long borrowedAt = System.currentTimeMillis();
+        private final Thread borrower = Thread.currentThread();
+        private volatile boolean returned;
+        private volatile boolean reported;
+
+        Lease(Connection connection) {
+            this.connection = connection;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (target, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            if (!returned) {
+                                returned = true;
+                                release(this);
+                            }
+                            yield null;
+                        }
+                        case "isClosed" -> returned || connection.isClosed();
+                        case "equals" -> target == args[0];
+                        case "hashCode" -> System.identityHashCode(target);
+                        case "toString" -> "Pooled " + connection;
+                        default -> {
+                            if (returned) {
+                                throw new SQLException("Connection has been returned to the pool");
+                            }
+                            try {
+                                yield method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        }
+                    });
+        }
+    }
+}
@@ -2,9 +2,31 @@ package dataAccess;
 
 import exception.ResponseException;
 
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 
+/**
+ * Sets up the chess database.
+ * The schema is built up by an ordered list of migrations. SCHEMA_VERSION records
+ * every migration that has been applied, so on startup only the ones newer than the
+ * database are run. To change the schema, add a migration to the end of the list
+ * rather than editing an old one.
+ */
 public class DataAccess {
+//    One row per migration applied
+    private static final String[] createSchemaVersionStatements = {
+            """
+        CREATE TABLE IF NOT EXISTS SCHEMA_VERSION (
+            `VERSION` int NOT NULL,
+            `DESCRIPTION` varchar(255) NOT NULL,
+            `APPLIED` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+            PRIMARY KEY (`VERSION`)
+        )
+        """
+    };
+
+//    The tables as they were before the schema was versioned
     private static final String[] createStatements = {
             """
         CREATE TABLE IF NOT EXISTS USERS (
@@ -33,20 +55,260 @@ public class DataAccess {
         """
     };
 
+//    Games are stored in binary in STATE, and JSON is made nullable since only old rows still use it
+    private static final String[] addStateStatements = {
+            "ALTER TABLE GAME ADD COLUMN `STATE` BLOB",
+            "ALTER TABLE GAME MODIFY `JSON` TEXT NULL"
+    };
+
+//    SNAPSHOT_PLY records how many logged moves STATE already includes
+    private static final String[] addMoveLogStatements = {
+            """
+        CREATE TABLE IF NOT EXISTS GAME_MOVES (
+            `GAME_ID` int NOT NULL,
+            `PLY` int NOT NULL,
+            `MOVE` int NOT NULL,
+            `CREATED` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+            PRIMARY KEY (`GAME_ID`, `PLY`)
+        )
+        """,
+            "ALTER TABLE GAME ADD COLUMN `SNAPSHOT_PLY` int NOT NULL DEFAULT 0"
+    };
+
+//    Tables made before they had keys may already hold duplicates, which would make adding
+//    the key fail. GAME and AUTH have no other unique column to tell the copies apart, so
+//    they are copied into a keyed table that keeps the first row for each key
+    private static final String[] addGameKeyStatements = {
+            "DROP TABLE IF EXISTS GAME_KEYED",
+            "CREATE TABLE GAME_KEYED LIKE GAME",
+            "ALTER TABLE GAME_KEYED ADD PRIMARY KEY (`ID`)",
+            "INSERT IGNORE INTO GAME_KEYED SELECT * FROM GAME",
+            "RENAME TABLE GAME TO GAME_UNKEYED, GAME_KEYED TO GAME",
+            "DROP TABLE GAME_UNKEYED"
+    };
+
+    private static final String[] addAuthKeyStatements = {
+            "DROP TABLE IF EXISTS AUTH_KEYED",
+            "CREATE TABLE AUTH_KEYED LIKE AUTH",
+            "ALTER TABLE AUTH_KEYED ADD PRIMARY KEY (`TOKEN`)",
+            "INSERT IGNORE INTO AUTH_KEYED SELECT * FROM AUTH",
+            "RENAME TABLE AUTH TO AUTH_UNKEYED, AUTH_KEYED TO AUTH",
+            "DROP TABLE AUTH_UNKEYED"
+    };
+
+    private static final String[] addAuthNameIndexStatements = {
+            "CREATE INDEX `AUTH_NAME` ON AUTH (`NAME`)"
+    };
+
+//    Only the first account registered under a name could ever log in, so later ones are dropped
+    private static final String[] addUserNameIndexStatements = {
+            "DELETE u1 FROM USERS u1 JOIN USERS u2 ON u1.NAME=u2.NAME AND u1.ID>u2.ID",
+            "CREATE UNIQUE INDEX `USERS_NAME` ON USERS (`NAME`)"
+    };
+
+//    Tokens record when they were created and last used, in milliseconds, so they can expire.
+//    Tokens from before then start their clocks now rather than all expiring at once
+    private static final String[] addTokenTimesStatements = {
+            "ALTER TABLE AUTH ADD COLUMN `CREATED` BIGINT NOT NULL DEFAULT 0, ADD COLUMN `LAST_USED` BIGINT NOT NULL DEFAULT 0",
+            "UPDATE AUTH SET CREATED=ROUND(UNIX_TIMESTAMP(NOW(3)) * 1000), LAST_USED=CREATED",
+            "CREATE INDEX `AUTH_LAST_USED` ON AUTH (`LAST_USED`)",
+            "CREATE INDEX `AUTH_CREATED` ON AUTH (`CREATED`)"
+    };
+
+//    Whether a game is over is kept in its own column so listings can filter on it without
+//    decoding boards. It's nobody's turn once a game is over, which is the second byte of
+//    STATE, or the turn field of rows still stored as JSON
+    private static final String[] addFinishedStatements = {
+            "ALTER TABLE GAME ADD COLUMN `FINISHED` BOOLEAN NOT NULL DEFAULT FALSE",
+            """
+        UPDATE GAME SET FINISHED = IF(STATE IS NOT NULL,
+            ASCII(SUBSTRING(STATE, 2, 1)) = 2,
+            JSON LIKE '%"turn":"NONE"%')
+        """
+    };
+
+//    Every change to a game goes up a version, so a change can be made only if nobody else
+//    changed the game since it was read
+    private static final String[] addGameVersionStatements = {
+            "ALTER TABLE GAME ADD COLUMN `VERSION` int NOT NULL DEFAULT 0"
+    };
+
+//    Migrations 2 to 4 were first applied by checking the schema on every startup, so a
+//    database from before SCHEMA_VERSION may already have them. They check before changing
+//    anything; migrations added from now on can rely on the recorded version instead.
+    private static final List<Migration> migrations = List.of(
+            Migration.of(1, "Create USERS, AUTH and GAME", createStatements),
+            new Migration(2, "Store games in binary in GAME.STATE", conn -> {
+                if (!columnExists(conn, "GAME", "STATE")) {
+                    executeAll(conn, addStateStatements);
+                }
+            }),
+            new Migration(3, "Log moves to GAME_MOVES with snapshots in GAME", conn -> {
+                if (!columnExists(conn, "GAME", "SNAPSHOT_PLY")) {
+                    executeAll(conn, addMoveLogStatements);
+                }
+            }),
+            new Migration(4, "Add primary keys and name indexes", conn -> {
+                if (!indexExists(conn, "GAME", "PRIMARY")) {
+                    executeAll(conn, addGameKeyStatements);
+                }
+                if (!indexExists(conn, "AUTH", "PRIMARY")) {
+                    executeAll(conn, addAuthKeyStatements);
+                }
+                if (!indexExists(conn, "AUTH", "AUTH_NAME")) {
+                    executeAll(conn, addAuthNameIndexStatements);
+                }
+                if (!indexExists(conn, "USERS", "USERS_NAME")) {
+                    executeAll(conn, addUserNameIndexStatements);
+                }
+            }),
+            Migration.of(5, "Record when auth tokens were created and last used", addTokenTimesStatements),
+            Migration.of(6, "Record which games are finished in GAME.FINISHED", addFinishedStatements),
+            Migration.of(7, "Version games in GAME.VERSION", addGameVersionStatements)
+    );
+
+    /**
+     * The schema version the database is at once every migration has run
+     */
+    public static final int LATEST_VERSION = migrations.get(migrations.size() - 1).version();
+
+//    Servers starting at the same time take turns migrating; this is how long one waits, in seconds
+    private static final int MIGRATION_LOCK_TIMEOUT = 60;
+
+    private static volatile boolean configured;
+
+    /**
+     * Creates the database if needed and brings its schema up to date.
+     * Only does anything the first time it is called, so every DAO can call it
+     * @throws ResponseException if the database can't be set up
+     */
     public static void configureDatabase() throws ResponseException {
-        try {
-            DatabaseManager.createDatabase();
-            try (var conn = DatabaseManager.getConnection()) {
-                for (var statement : createStatements) {
-                    try (var preparedStatement = conn.prepareStatement(statement)) {
-                        preparedStatement.executeUpdate();
-                    }
-                }
-            } catch (SQLException ex) {
+        if (configured) {
+            return;
+        }
+        synchronized (DataAccess.class) {
+            if (configured) {
+                return;
+            }
+            try {
+                DatabaseManager.createDatabase();
+                try (var conn = DatabaseManager.getConnection()) {
+                    migrate(conn);
+                } catch (SQLException ex) {
+                    throw new ResponseException(500, String.format("Unable to configure database: %s", ex.getMessage()));
+                }
+            } catch (DataAccessException ex) {
                 throw new ResponseException(500, String.format("Unable to configure database: %s", ex.getMessage()));
             }
-        } catch (DataAccessException ex) {
-            throw new ResponseException(500, String.format("Unable to configure database: %s", ex.getMessage()));
+            configured = true;
+        }
+    }
+
+    /**
+     * Applies every migration newer than the database's schema version, in order
+     * @param conn the connection to migrate with
+     * @return how many migrations were applied
+     * @throws SQLException if a migration fails; the ones before it stay applied
+     * @throws DataAccessException if another server holds the migration lock for too long
+     */
+    public static int migrate(Connection conn) throws SQLException, DataAccessException {
+        executeAll(conn, createSchemaVersionStatements);
+
+        try (var lockStatement = conn.prepareStatement("SELECT GET_LOCK('chess.schema', ?)")) {
+            lockStatement.setInt(1, MIGRATION_LOCK_TIMEOUT);
+            try (var rs = lockStatement.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new DataAccessException("Timed out waiting for another server to migrate the database");
+                }
+            }
+        }
+
+        try {
+            int version = schemaVersion(conn);
+            int applied = 0;
+            for (var migration : migrations) {
+                if (migration.version() <= version) {
+                    continue;
+                }
+                migration.step().apply(conn);
+                try (var preparedStatement = conn.prepareStatement("INSERT INTO SCHEMA_VERSION (VERSION, DESCRIPTION) VALUES(?, ?)")) {
+                    preparedStatement.setInt(1, migration.version());
+                    preparedStatement.setString(2, migration.description());
+                    preparedStatement.executeUpdate();
+                }
+                System.out.printf("Applied schema migration %d: %s%n", migration.version(), migration.description());
+                applied++;
+            }
+            return applied;
+        } finally {
+            try (var unlockStatement = conn.prepareStatement("SELECT RELEASE_LOCK('chess.schema')")) {
+                unlockStatement.executeQuery().close();
+            }
+        }
+    }
+
+    /**
+     * Gets the version of the newest migration applied to the database
+     * @param conn the connection to check with
+     * @return the schema version, 0 if no migrations have been applied
+     * @throws SQLException if SCHEMA_VERSION can't be read
+     */
+    public static int schemaVersion(Connection conn) throws SQLException {
+        try (var preparedStatement = conn.prepareStatement("SELECT COALESCE(MAX(VERSION), 0) FROM SCHEMA_VERSION");
+             var rs = preparedStatement.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Runs statements in order
+     * @param conn the connection to run them with
+     * @param statements the SQL statements
+     * @throws SQLException if any of them fails
+     */
+    static void executeAll(Connection conn, String[] statements) throws SQLException {
+        for (var statement : statements) {
+            try (var preparedStatement = conn.prepareStatement(statement)) {
+                preparedStatement.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Checks whether a table in the current database has a column
+     * @param conn the connection to check with
+     * @param table the table name
+     * @param column the column name
+     * @return true if the column exists
+     * @throws SQLException if the query fails
+     */
+    private static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        try (var preparedStatement = conn.prepareStatement(
+                "SELECT COUNT(*) FROM information_schema.COLUMNS WHERE TABLE_SCHEMA=DATABASE() AND TABLE_NAME=? AND COLUMN_NAME=?")) {
+            preparedStatement.setString(1, table);
+            preparedStatement.setString(2, column);
+            try (var rs = preparedStatement.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a table in the current database has an index
+     * @param conn the connection to check with
+     * @param table the table name
+     * @param index the index name, PRIMARY for the primary key
+     * @return true if the index exists
+     * @throws SQLException if the query fails
+     */
+    private static boolean indexExists(Connection conn, String table, String index) throws SQLException {
+        try (var preparedStatement = conn.prepareStatement(
+                "SELECT COUNT(*) FROM information_schema.STATISTICS WHERE TABLE_SCHEMA=DATABASE() AND TABLE_NAME=? AND INDEX_NAME=?")) {
+            preparedStatement.setString(1, table);
+            preparedStatement.setString(2, index);
+            try (var rs = preparedStatement.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
         }
     }
 }
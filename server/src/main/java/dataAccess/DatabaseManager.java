@@ -8,6 +8,11 @@ public class DatabaseManager {
     private static final String user;
     private static final String password;
     private static final String connectionUrl;
+    private static final int poolSize;
+    private static final long poolTimeout;
+    private static final long poolLeakThreshold;
+    private static final boolean poolLeakStacks;
+    private static volatile ConnectionPool pool;
 
     /*
      * Load the database information for the db.properties file.
@@ -25,6 +30,13 @@ public class DatabaseManager {
                 var host = props.getProperty("db.host");
                 var port = Integer.parseInt(props.getProperty("db.port"));
                 connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+
+//                Optional pool settings; timeouts are in milliseconds and a leak threshold of 0 turns leak reports off
+                poolSize = Integer.parseInt(props.getProperty("db.pool.size", "10"));
+                poolTimeout = Long.parseLong(props.getProperty("db.pool.timeout", "5000"));
+                poolLeakThreshold = Long.parseLong(props.getProperty("db.pool.leakThreshold", "30000"));
+//                Leak reports are one line unless the borrower's stack is asked for
+                poolLeakStacks = Boolean.parseBoolean(props.getProperty("db.pool.leakStacks", "false"));
             }
         } catch (Exception ex) {
             throw new RuntimeException("unable to process db.properties. " + ex.getMessage());
@@ -37,8 +49,8 @@ public class DatabaseManager {
     public static void createDatabase() throws DataAccessException {
         try {
             var statement = "CREATE DATABASE IF NOT EXISTS " + databaseName;
-            var conn = DriverManager.getConnection(connectionUrl, user, password);
-            try (var preparedStatement = conn.prepareStatement(statement)) {
+            try (var conn = DriverManager.getConnection(connectionUrl, user, password);
+                 var preparedStatement = conn.prepareStatement(statement)) {
                 preparedStatement.executeUpdate();
             }
         } catch (SQLException e) {
@@ -47,24 +59,58 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
+     * Borrows a connection to the database from the connection pool, with the
+     * catalog set based upon the properties specified in db.properties.
+     * Connections to the database should be short-lived, and you must close the
+     * connection when you are done with it, which returns it to the pool.
      * The easiest way to do that is with a try-with-resource block.
      * <br/>
      * <code>
-     * try (var conn = DbInfo.getConnection(databaseName)) {
+     * try (var conn = DatabaseManager.getConnection()) {
      * // execute SQL statements.
      * }
      * </code>
      */
     public static Connection getConnection() throws DataAccessException {
-        try {
-            var conn = DriverManager.getConnection(connectionUrl, user, password);
-            conn.setCatalog(databaseName);
-            return conn;
-        } catch (SQLException e) {
-            throw new DataAccessException(e.getMessage());
+        return getPool().getConnection();
+    }
+
+    /**
+     * Gets the connection pool, creating it the first time it is needed.
+     * Its size, wait timeout, leak threshold and whether leak reports include stacks come
+     * from the optional db.pool.size, db.pool.timeout, db.pool.leakThreshold and
+     * db.pool.leakStacks properties
+     */
+    public static ConnectionPool getPool() {
+        if (pool == null) {
+            synchronized (DatabaseManager.class) {
+                if (pool == null) {
+                    pool = new ConnectionPool(DatabaseManager::openConnection, poolSize, poolTimeout, poolLeakThreshold, poolLeakStacks);
+                }
+            }
         }
+        return pool;
+    }
+
+    /**
+     * Closes the connection pool if it was ever created, releasing its idle connections
+     * and leak detector. The next connection borrowed creates a new pool
+     */
+    public static void closePool() {
+        synchronized (DatabaseManager.class) {
+            if (pool != null) {
+                pool.close();
+                pool = null;
+            }
+        }
+    }
+
+    /**
+     * Opens a new physical connection for the pool
+     */
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(connectionUrl, user, password);
+        conn.setCatalog(databaseName);
+        return conn;
     }
 }
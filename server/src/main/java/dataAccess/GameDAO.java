@@ -1,17 +1,62 @@
 package dataAccess;
 
+import chess.ChessMove;
 import model.GameData;
+import model.GameQuery;
+import model.GameResponseData;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public interface GameDAO {
     void clear() throws DataAccessException;
 
-    void addGame(GameData gameData) throws DataAccessException;
+    /**
+     * Adds a new game; an existing game with the same ID is left alone
+     * @param gameData the game to add
+     * @return true if it was added, false if the ID is already taken
+     */
+    boolean addGame(GameData gameData) throws DataAccessException;
 
     GameData getGame(int gameID) throws DataAccessException;
 
-    ArrayList<GameData> listGames() throws DataAccessException;
+    ArrayList<GameResponseData> listGameSummaries(GameQuery query) throws DataAccessException;
 
     void updateGame(GameData newGame) throws DataAccessException;
+
+    /**
+     * Replaces a game only if nobody has changed it since it was read
+     * @param newGame the updated game
+     * @param expectedVersion the version the game was at when it was read
+     * @return true if the game was updated, now at expectedVersion + 1; false if it was
+     * at another version or doesn't exist, in which case nothing changed
+     */
+    boolean updateGame(GameData newGame, int expectedVersion) throws DataAccessException;
+
+    void appendMove(GameData gameData, ChessMove move) throws DataAccessException;
+
+    /**
+     * Records a move only if nobody has changed the game since it was read
+     * @param gameData the game, with the move already made
+     * @param move the move that was made
+     * @param expectedVersion the version the game was at when it was read
+     * @return true if the move was recorded, with the game now at expectedVersion + 1; false
+     * if it was at another version or doesn't exist, in which case nothing changed
+     */
+    boolean appendMove(GameData gameData, ChessMove move, int expectedVersion) throws DataAccessException;
+
+    void appendMoves(GameData gameData, List<ChessMove> moves) throws DataAccessException;
+
+    /**
+     * Records several moves and stores the game as given, only if nobody has changed it since it was read
+     * @param gameData the game, with the moves already made, at the version it should be stored at,
+     *                 which may be several past expectedVersion
+     * @param moves the moves that were made, in order; may be empty to store only the game
+     * @param expectedVersion the version the game was at when it was read
+     * @return true if the game was stored; false if it was at another version or doesn't exist,
+     * in which case nothing changed
+     */
+    boolean appendMoves(GameData gameData, List<ChessMove> moves, int expectedVersion) throws DataAccessException;
+
+    ArrayList<ChessMove> getMoves(int gameID) throws DataAccessException;
 }
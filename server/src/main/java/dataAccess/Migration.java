@@ -0,0 +1,33 @@
+package dataAccess;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * One step in evolving the database schema. Migrations are applied in order of
+ * version, and each one is recorded in SCHEMA_VERSION once it has run so it is
+ * never run again.
+ * @param version the schema version the database is at after this migration
+ * @param description what the migration changes
+ * @param step applies the migration
+ */
+public record Migration(int version, String description, Step step) {
+
+    /**
+     * Applies a migration using a connection to the chess database
+     */
+    public interface Step {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Makes a migration that runs a list of statements in order
+     * @param version the schema version the database is at after this migration
+     * @param description what the migration changes
+     * @param statements the SQL statements to run
+     * @return the migration
+     */
+    public static Migration of(int version, String description, String... statements) {
+        return new Migration(version, description, conn -> DataAccess.executeAll(conn, statements));
+    }
+}
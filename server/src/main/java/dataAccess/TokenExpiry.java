@@ -0,0 +1,62 @@
+package dataAccess;
+
+/**
+ * When authTokens expire. A token expires once it has gone unused for the idle
+ * timeout, and using it pushes that back (sliding expiry). It also expires once
+ * it is older than the maximum lifetime, however much it is used. Times are in
+ * milliseconds since the epoch.
+ * @param idleTimeoutMillis how long a token can go unused
+ * @param maxLifetimeMillis how long a token can live at all, 0 for no limit
+ */
+public record TokenExpiry(long idleTimeoutMillis, long maxLifetimeMillis) {
+    /**
+     * Logged out after a day without using the server, and at least once a week
+     */
+    public static final TokenExpiry DEFAULT = new TokenExpiry(24 * 60 * 60 * 1000L, 7 * 24 * 60 * 60 * 1000L);
+
+//    Recording every use would be a write on every request, so uses are only recorded
+//    once the last recorded one is this old; a token can expire up to this much early
+    private static final long MAX_TOUCH_INTERVAL_MILLIS = 60_000;
+
+    public TokenExpiry {
+        if (idleTimeoutMillis <= 0 || maxLifetimeMillis < 0) {
+            throw new IllegalArgumentException("Token timeouts must be positive");
+        }
+    }
+
+    /**
+     * @param created when the token was created
+     * @param lastUsed when the token was last recorded as used
+     * @param now the current time
+     * @return whether the token has expired
+     */
+    public boolean isExpired(long created, long lastUsed, long now) {
+        return now - lastUsed >= idleTimeoutMillis
+                || (maxLifetimeMillis > 0 && now - created >= maxLifetimeMillis);
+    }
+
+    /**
+     * @param lastUsed when the token was last recorded as used
+     * @param now the current time
+     * @return whether a use of the token now should be recorded
+     */
+    public boolean needsTouch(long lastUsed, long now) {
+        return now - lastUsed >= Math.min(MAX_TOUCH_INTERVAL_MILLIS, idleTimeoutMillis / 2);
+    }
+
+    /**
+     * @param now the current time
+     * @return tokens last used before this have gone idle for too long
+     */
+    public long idleCutoff(long now) {
+        return now - idleTimeoutMillis;
+    }
+
+    /**
+     * @param now the current time
+     * @return tokens created before this are too old, Long.MIN_VALUE if there's no maximum lifetime
+     */
+    public long createdCutoff(long now) {
+        return maxLifetimeMillis > 0 ? now - maxLifetimeMillis : Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,179 @@
+package dataAccess.cache;
+
+import dataAccess.AuthDAO;
+import dataAccess.DataAccessException;
+import model.AuthData;
+import model.UserData;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps recently used authTokens in memory in front of another AuthDAO, so
+ * authenticating a request is usually a map lookup instead of a query.
+ * <p>
+ * Only tokens that exist are cached. Once the cache holds maxSize tokens, the
+ * least recently used one is dropped, and a cached token is checked against the
+ * underlying AuthDAO again once it is older than the TTL. Deleting a token through
+ * this DAO removes it from the cache right away; a token deleted by another server
+ * can still be accepted here until its cached entry expires.
+ */
+public class CachingAuthDAO implements AuthDAO {
+    private final AuthDAO authDAO;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> cache;
+
+    /**
+     * @param authDAO the AuthDAO to cache tokens from
+     * @param maxSize the most tokens to keep in memory
+     * @param ttlMillis how long a token is trusted before it is looked up again
+     */
+    public CachingAuthDAO(AuthDAO authDAO, int maxSize, long ttlMillis) {
+        this(authDAO, maxSize, ttlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * @param authDAO the AuthDAO to cache tokens from
+     * @param maxSize the most tokens to keep in memory
+     * @param ttlMillis how long a token is trusted before it is looked up again
+     * @param clock gives the current time in milliseconds
+     */
+    public CachingAuthDAO(AuthDAO authDAO, int maxSize, long ttlMillis, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.authDAO = authDAO;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+//        Access order, so the eldest entry is the least recently used
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Clears the cache and the underlying AuthDAO
+     * @throws DataAccessException if the underlying AuthDAO fails to clear
+     */
+    @Override
+    public void clear() throws DataAccessException {
+        synchronized (cache) {
+            cache.clear();
+        }
+        authDAO.clear();
+    }
+
+    /**
+     * Creates an authToken and caches it, since it's about to be used
+     * @param userData the user to create the token for
+     * @return authData with the username and authToken
+     * @throws DataAccessException if the underlying AuthDAO fails
+     */
+    @Override
+    public AuthData createAuth(UserData userData) throws DataAccessException {
+        AuthData authData = authDAO.createAuth(userData);
+        put(authData);
+        return authData;
+    }
+
+    /**
+     * Determines whether an authToken exists, checking the cache first
+     * @param authToken the authToken to look for
+     * @return true if it exists, false if not
+     * @throws DataAccessException if the underlying AuthDAO fails
+     */
+    @Override
+    public boolean authExists(String authToken) throws DataAccessException {
+        return cached(authToken) != null || authDAO.authExists(authToken);
+    }
+
+    /**
+     * Gets the AuthData for an authToken, from the cache if it's there
+     * @param authToken the authToken to look up
+     * @return the AuthData, as the underlying AuthDAO returns it on a miss
+     * @throws DataAccessException if the underlying AuthDAO fails
+     */
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        AuthData authData = cached(authToken);
+        if (authData != null) {
+            return authData;
+        }
+        authData = authDAO.getAuth(authToken);
+        if (authData != null) {
+            put(authData);
+        }
+        return authData;
+    }
+
+    /**
+     * Removes an authToken from the cache and the underlying AuthDAO
+     * @param authToken the authToken to delete
+     * @return true if the underlying AuthDAO deleted it
+     * @throws DataAccessException if the underlying AuthDAO fails
+     */
+    @Override
+    public boolean deleteAuth(String authToken) throws DataAccessException {
+        invalidate(authToken);
+        return authDAO.deleteAuth(authToken);
+    }
+
+    /**
+     * Deletes expired tokens from the underlying AuthDAO. Cached copies are left to
+     * expire on their own, so this doesn't have to scan the cache
+     * @param limit the most tokens to delete
+     * @return how many were deleted
+     * @throws DataAccessException if the underlying AuthDAO fails
+     */
+    @Override
+    public int deleteExpired(int limit) throws DataAccessException {
+        return authDAO.deleteExpired(limit);
+    }
+
+    /**
+     * Drops an authToken from the cache without touching the underlying AuthDAO
+     * @param authToken the authToken to forget
+     */
+    public void invalidate(String authToken) {
+        synchronized (cache) {
+            cache.remove(authToken);
+        }
+    }
+
+    /**
+     * @return how many tokens are cached
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private AuthData cached(String authToken) {
+        synchronized (cache) {
+            Entry entry = cache.get(authToken);
+            if (entry == null) {
+                return null;
+            }
+            if (clock.getAsLong() >= entry.expiresAt()) {
+                cache.remove(authToken);
+                return null;
+            }
+            return entry.authData();
+        }
+    }
+
+    private void put(AuthData authData) {
+        synchronized (cache) {
+            cache.put(authData.authToken(), new Entry(authData, clock.getAsLong() + ttlMillis));
+        }
+    }
+
+    private record Entry(AuthData authData, long expiresAt) {
+    }
+}
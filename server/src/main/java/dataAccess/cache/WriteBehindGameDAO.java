@@ -0,0 +1,504 @@
+package dataAccess.cache;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.GameCodec;
+import dataAccess.DataAccessException;
+import dataAccess.GameDAO;
+import model.GameData;
+import model.GameQuery;
+import model.GameResponseData;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps games that are being played in memory in front of another GameDAO, and
+ * writes changes to it in the background.
+ * <p>
+ * Reads of a resident game never reach the underlying GameDAO. Moves and updates
+ * change the resident game right away and are queued; every flush interval the
+ * queued changes for each game are written as one batch, so a game that had ten
+ * moves since the last flush costs one write rather than ten. The flush interval
+ * is the durability window: changes made less than that long ago are lost if the
+ * process dies. New games and clears are written through immediately. Games that
+ * haven't been used for the idle timeout and have nothing queued are dropped from
+ * memory on the next flush.
+ * <p>
+ * Each batch remembers the version the game was stored at before it, and is only
+ * written if the stored game is still at that version, so a change made by another
+ * server or straight to the database is never overwritten. If the game has moved on,
+ * the batch and anything queued after it are dropped, the resident game is let go so
+ * the stored one is loaded in its place, and the conflict listener is told the
+ * game's ID so its players can be sent the stored game.
+ * Players of a game that conflicts can lose up to a flush interval of accepted moves,
+ * so each game should still only be played through one server at a time.
+ */
+public class WriteBehindGameDAO implements GameDAO, AutoCloseable {
+    private final GameDAO gameDAO;
+    private final long idleTimeoutMillis;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<Integer, Resident> resident = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger conflicts = new AtomicInteger();
+    private volatile IntConsumer conflictListener = gameID -> { };
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Creates the cache, which doesn't flush on its own until it is started
+     * @param gameDAO the GameDAO to cache games from and write them to
+     * @param idleTimeoutMillis how long a game stays in memory after it was last used
+     */
+    public WriteBehindGameDAO(GameDAO gameDAO, long idleTimeoutMillis) {
+        this(gameDAO, idleTimeoutMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates the cache, which doesn't flush on its own until it is started
+     * @param gameDAO the GameDAO to cache games from and write them to
+     * @param idleTimeoutMillis how long a game stays in memory after it was last used
+     * @param clock gives the current time in milliseconds
+     */
+    public WriteBehindGameDAO(GameDAO gameDAO, long idleTimeoutMillis, LongSupplier clock) {
+        this.gameDAO = gameDAO;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "game-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sets what to tell when a game's queued changes are dropped because it was changed
+     * elsewhere, which is called on the flushing thread once the flush is done
+     * @param conflictListener takes the ID of the game whose changes were dropped
+     */
+    public void onConflict(IntConsumer conflictListener) {
+        this.conflictListener = conflictListener;
+    }
+
+    /**
+     * Starts flushing queued changes in the background
+     * @param flushIntervalMillis how often to flush, which is how long a change can go unwritten
+     */
+    public void start(long flushIntervalMillis) {
+        scheduler.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Clears the cache, anything queued and the underlying GameDAO
+     * @throws DataAccessException if the underlying GameDAO fails to clear
+     */
+    @Override
+    public synchronized void clear() throws DataAccessException {
+        pending.clear();
+        resident.clear();
+        gameDAO.clear();
+    }
+
+    /**
+     * Adds a game, writing it through to the underlying GameDAO right away
+     * @param gameData the game to add
+     * @return true if it was added, false if the ID is already taken
+     * @throws DataAccessException if the underlying GameDAO fails
+     */
+    @Override
+    public synchronized boolean addGame(GameData gameData) throws DataAccessException {
+        if (!gameDAO.addGame(gameData)) {
+            return false;
+        }
+        resident.put(gameData.gameID(), new Resident(gameData, clock.getAsLong()));
+        return true;
+    }
+
+    /**
+     * Gets a game, loading it into memory if it isn't already
+     * @param gameID the ID of the game
+     * @return a copy of the game that can be changed freely, null if there isn't one
+     * @throws DataAccessException if the game has to be loaded and the underlying GameDAO fails
+     */
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        GameData gameData = load(gameID);
+        if (gameData == null) {
+            return null;
+        }
+        touch(gameID);
+        return copy(gameData);
+    }
+
+    /**
+     * Lists one page of the IDs, players and names of the games that match a query.
+     * Games with queued changes may have moved in or out of the listing, so the page is
+     * read from the underlying GameDAO with one extra game for each of them, those are
+     * replaced by their resident copy and filtered again, and the page is cut back to size.
+     * Nothing is written, so a listing never waits on a flush
+     * @param query the filters, page size and where the page starts
+     * @return Collection of GameResponseData in order of gameID
+     * @throws DataAccessException if the underlying GameDAO fails
+     */
+    @Override
+    public ArrayList<GameResponseData> listGameSummaries(GameQuery query) throws DataAccessException {
+        var changed = new HashMap<Integer, GameData>();
+        for (Integer gameID : pending.keySet()) {
+            Resident cached = resident.get(gameID);
+            if (cached != null) {
+                changed.put(gameID, cached.gameData());
+            }
+        }
+        if (changed.isEmpty()) {
+            return gameDAO.listGameSummaries(query);
+        }
+
+//        Each changed game can knock at most one stored game off the page
+        int limit = (int) Math.min((long) query.limit() + changed.size(), Integer.MAX_VALUE);
+        var page = new TreeMap<Integer, GameResponseData>();
+        for (var summary : gameDAO.listGameSummaries(query.withLimit(limit))) {
+            if (!changed.containsKey(summary.gameID())) {
+                page.put(summary.gameID(), summary);
+            }
+        }
+        changed.forEach((gameID, gameData) -> {
+            boolean over = gameData.game() != null && gameData.game().getTeamTurn() == ChessGame.TeamColor.NONE;
+            if (query.matches(gameID, gameData.whiteUsername(), gameData.blackUsername(), gameData.gameName(), over)) {
+                page.put(gameID, new GameResponseData(gameID, gameData.whiteUsername(), gameData.blackUsername(), gameData.gameName()));
+            }
+        });
+
+        var summaries = new ArrayList<GameResponseData>();
+        for (var summary : page.values()) {
+            if (summaries.size() == query.limit()) {
+                break;
+            }
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+
+    /**
+     * Updates a game in memory, at the version after the resident one, and queues a full write of it
+     * @param newGame the updated game
+     * @throws DataAccessException if the game has to be loaded and the underlying GameDAO fails
+     */
+    @Override
+    public void updateGame(GameData newGame) throws DataAccessException {
+        changeLatest(newGame, next -> { });
+    }
+
+    /**
+     * Updates a game in memory and queues a full write of it, if the resident game is
+     * still at the version it was read at. Only this cache changes the games it holds,
+     * so checking the resident game is enough
+     * @param newGame the updated game
+     * @param expectedVersion the version the game was read at
+     * @return true if it was updated, false if the game changed or doesn't exist
+     * @throws DataAccessException if the game has to be loaded and the underlying GameDAO fails
+     */
+    @Override
+    public boolean updateGame(GameData newGame, int expectedVersion) throws DataAccessException {
+        return changeIfCurrent(newGame.withVersion(expectedVersion + 1), expectedVersion, next -> { });
+    }
+
+    /**
+     * Updates a game in memory and queues the move to be logged, if the resident game is
+     * still at the version it was read at
+     * @param gameData the game, with the move already made
+     * @param move the move that was made
+     * @param expectedVersion the version the game was read at
+     * @return true if the move was recorded, false if the game changed or doesn't exist
+     * @throws DataAccessException if the game has to be loaded and the underlying GameDAO fails
+     */
+    @Override
+    public boolean appendMove(GameData gameData, ChessMove move, int expectedVersion) throws DataAccessException {
+        return changeIfCurrent(gameData.withVersion(expectedVersion + 1), expectedVersion, next -> next.moves.add(move));
+    }
+
+    /**
+     * Updates a game in memory and queues the moves to be logged, if the resident game is
+     * still at the version it was read at
+     * @param gameData the game, with the moves already made, at its new version
+     * @param moves the moves that were made, in order
+     * @param expectedVersion the version the game was read at
+     * @return true if the moves were recorded, false if the game changed or doesn't exist
+     * @throws DataAccessException if the game has to be loaded and the underlying GameDAO fails
+     */
+    @Override
+    public boolean appendMoves(GameData gameData, List<ChessMove> moves, int expectedVersion) throws DataAccessException {
+        return changeIfCurrent(gameData, expectedVersion, next -> next.moves.addAll(moves));
+    }
+
+    /**
+     * Updates a game in memory, at the version after the resident one, and queues the move to be logged
+     * @param gameData the game, with the move already made
+     * @param move the move that was made
+     * @throws DataAccessException if the game has to be loaded and the underlying GameDAO fails
+     */
+    @Override
+    public void appendMove(GameData gameData, ChessMove move) throws DataAccessException {
+        appendMoves(gameData, List.of(move));
+    }
+
+    /**
+     * Updates a game in memory, at the version after the resident one, and queues the moves to be logged
+     * @param gameData the game, with the moves already made
+     * @param moves the moves that were made, in order
+     * @throws DataAccessException if the game has to be loaded and the underlying GameDAO fails
+     */
+    @Override
+    public void appendMoves(GameData gameData, List<ChessMove> moves) throws DataAccessException {
+        changeLatest(gameData, next -> next.moves.addAll(moves));
+    }
+
+    /**
+     * Gets every move made in a game, including ones not written yet
+     * @param gameID the ID of the game
+     * @return the moves in the order they were made
+     * @throws DataAccessException if the underlying GameDAO fails
+     */
+    @Override
+    public synchronized ArrayList<ChessMove> getMoves(int gameID) throws DataAccessException {
+//        Holding the lock keeps a flush from moving queued moves over while the log is read
+        ArrayList<ChessMove> moves = gameDAO.getMoves(gameID);
+        pending.computeIfPresent(gameID, (id, queued) -> {
+            moves.addAll(queued.moves);
+            return queued;
+        });
+        return moves;
+    }
+
+    /**
+     * Writes every queued change to the underlying GameDAO, one batch per game, and
+     * drops idle games from memory. A batch whose game was changed elsewhere since it
+     * was queued is dropped, and the game is loaded again when it's next used
+     * @return how many games were written
+     * @throws DataAccessException if a write fails; the other games are still written,
+     * and the failed ones stay queued
+     */
+    public synchronized int flush() throws DataAccessException {
+        int written = 0;
+        var conflicted = new ArrayList<Integer>();
+        DataAccessException failure = null;
+        for (Integer gameID : pending.keySet()) {
+            Pending batch = pending.remove(gameID);
+            if (batch == null) {
+                continue;
+            }
+            try {
+                if (!gameDAO.appendMoves(batch.gameData, batch.moves, batch.baseVersion)) {
+                    conflict(gameID);
+                    conflicted.add(gameID);
+                    continue;
+                }
+                written++;
+            } catch (DataAccessException | RuntimeException e) {
+                requeue(gameID, batch);
+                if (failure == null) {
+                    failure = new DataAccessException(e.getMessage());
+                }
+            }
+        }
+        evictIdle();
+        for (int gameID : conflicted) {
+            conflictListener.accept(gameID);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return written;
+    }
+
+    /**
+     * @return how many games are in memory
+     */
+    public int residentCount() {
+        return resident.size();
+    }
+
+    /**
+     * @return how many batches have been dropped because their game was changed elsewhere
+     */
+    public int conflictCount() {
+        return conflicts.get();
+    }
+
+    /**
+     * @return how many games have changes waiting to be written
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Stops flushing in the background and writes anything still queued
+     * @throws DataAccessException if the final flush fails
+     */
+    @Override
+    public void close() throws DataAccessException {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void flushSafely() {
+//        An exception would cancel every later flush, so a failed one is reported and retried next time
+        try {
+            flush();
+        } catch (DataAccessException | RuntimeException e) {
+            System.out.printf("Unable to write games: %s%n", e.getMessage());
+        }
+    }
+
+    /**
+     * Puts a batch that failed to write back in front of anything queued since
+     */
+    private void requeue(int gameID, Pending batch) {
+        pending.merge(gameID, batch, (newer, failed) -> {
+            failed.moves.addAll(newer.moves);
+            failed.gameData = newer.gameData;
+            return failed;
+        });
+    }
+
+    /**
+     * Drops a batch that can't be written because its game was changed elsewhere, along with
+     * anything queued since, which was made on top of it, and lets the resident game go so
+     * the stored one is loaded the next time it's used
+     */
+    private void conflict(int gameID) {
+        conflicts.incrementAndGet();
+        pending.compute(gameID, (id, newer) -> {
+            resident.remove(id);
+            return null;
+        });
+    }
+
+    private void evictIdle() {
+        long cutoff = clock.getAsLong() - idleTimeoutMillis;
+        resident.forEach((gameID, cached) -> {
+            if (cached.lastUsed() <= cutoff && !pending.containsKey(gameID)) {
+                resident.remove(gameID, cached);
+            }
+        });
+    }
+
+    /**
+     * Makes a change to a resident game and its queue together, if the game is at the expected version
+     * @param gameData the changed game, at its new version
+     * @param expectedVersion the version the game was read at
+     * @param change what to queue along with the game
+     * @return true if the change was made
+     */
+    private boolean changeIfCurrent(GameData gameData, int expectedVersion, Consumer<Pending> change) throws DataAccessException {
+//        The check is against the resident game, so load it if it was evicted since it was read
+        if (load(gameData.gameID()) == null) {
+            return false;
+        }
+        var changed = new AtomicBoolean();
+        pending.compute(gameData.gameID(), (gameID, queued) -> {
+            Resident cached = resident.get(gameID);
+            if (cached == null || cached.gameData().version() != expectedVersion) {
+                return queued;
+            }
+//            A new batch starts from the version the game is stored at, since nothing is queued over it
+            Pending next = queued != null ? queued : new Pending(expectedVersion);
+            resident.put(gameID, new Resident(gameData, clock.getAsLong()));
+            next.gameData = gameData;
+            change.accept(next);
+            changed.set(true);
+            return next;
+        });
+        return changed.get();
+    }
+
+    /**
+     * Gets the resident copy of a game, loading it into memory if it isn't already
+     * @param gameID the ID of the game
+     * @return the resident game, which must only be read; null if there isn't one
+     * @throws DataAccessException if the game has to be loaded and the underlying GameDAO fails
+     */
+    private GameData load(int gameID) throws DataAccessException {
+        Resident cached = resident.get(gameID);
+        if (cached != null) {
+            return cached.gameData();
+        }
+        GameData gameData = gameDAO.getGame(gameID);
+        if (gameData == null) {
+            return null;
+        }
+//        Don't overwrite a change that was made while the game was being loaded; the entry
+//        can be evicted again at any time, so use the one that won rather than looking it up
+        Resident loaded = new Resident(gameData, clock.getAsLong());
+        Resident existing = resident.putIfAbsent(gameID, loaded);
+        return (existing != null ? existing : loaded).gameData();
+    }
+
+    /**
+     * Makes a change on top of whatever version the resident game is at, so it still moves
+     * the game to a new version and is written with a version check like any other change
+     * @param gameData the changed game
+     * @param change what to queue along with the game
+     */
+    private void changeLatest(GameData gameData, Consumer<Pending> change) throws DataAccessException {
+        while (true) {
+            GameData current = load(gameData.gameID());
+            if (current == null) {
+                return;
+            }
+            if (changeIfCurrent(gameData.withVersion(current.version() + 1), current.version(), change)) {
+                return;
+            }
+        }
+    }
+
+    private void touch(int gameID) {
+        long now = clock.getAsLong();
+        resident.computeIfPresent(gameID, (id, cached) -> new Resident(cached.gameData(), now));
+    }
+
+    private static GameData copy(GameData gameData) {
+        if (gameData.game() == null) {
+            return gameData;
+        }
+        return new GameData(
+                gameData.gameID(),
+                gameData.whiteUsername(),
+                gameData.blackUsername(),
+                gameData.gameName(),
+                GameCodec.decode(GameCodec.encode(gameData.game())),
+                gameData.version());
+    }
+
+    private record Resident(GameData gameData, long lastUsed) {
+    }
+
+    /**
+     * Changes to a game that haven't been written yet
+     */
+    private static class Pending {
+//        The version the game is stored at, which the batch is only written over
+        private final int baseVersion;
+        private GameData gameData;
+        private final ArrayList<ChessMove> moves = new ArrayList<>();
+
+        private Pending(int baseVersion) {
+            this.baseVersion = baseVersion;
+        }
+    }
+}
@@ -1,17 +1,40 @@
 package dataAccess.memory;
 
 import dataAccess.AuthDAO;
+import dataAccess.TokenExpiry;
 import model.AuthData;
 import model.UserData;
 
-import java.util.HashMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
 
 /**
- * Implementation of AuthDAO, providing access to authorization data in memory
+ * Implementation of AuthDAO, providing access to authorization data in memory.
+ * Safe to use from many threads.
+ * Tokens expire as set by a TokenExpiry; expired tokens are treated as missing
+ * and are removed by deleteExpired
  */
 public class MemoryAuthDAO implements AuthDAO {
-    private final HashMap<String, AuthData> authTokens = new HashMap<>();
+    private final ConcurrentHashMap<String, Session> authTokens = new ConcurrentHashMap<>();
+    private final TokenExpiry expiry;
+    private final LongSupplier clock;
+
+    /**
+     * Stores tokens with the default expiry
+     */
+    public MemoryAuthDAO() {
+        this(TokenExpiry.DEFAULT, System::currentTimeMillis);
+    }
+
+    /**
+     * @param expiry when tokens expire
+     * @param clock gives the current time in milliseconds
+     */
+    public MemoryAuthDAO(TokenExpiry expiry, LongSupplier clock) {
+        this.expiry = expiry;
+        this.clock = clock;
+    }
 
     /**
      * Clears all authTokens in memory
@@ -28,7 +51,8 @@ public class MemoryAuthDAO implements AuthDAO {
     @Override
     public AuthData createAuth(UserData userData) {
         AuthData authData = new AuthData(userData.username(), UUID.randomUUID().toString());
-        authTokens.put(authData.authToken(), authData);
+        long now = clock.getAsLong();
+        authTokens.put(authData.authToken(), new Session(authData, now, now));
         return authData;
     }
 
@@ -39,17 +63,17 @@ public class MemoryAuthDAO implements AuthDAO {
      */
     @Override
     public boolean authExists(String authToken) {
-        return authTokens.containsKey(authToken);
+        return use(authToken) != null;
     }
 
     /**
      * Gets the AuthData object associated with an authToken
      * @param authToken the authToken string to compare against the database
-     * @return the AuthData object associated
+     * @return the AuthData object associated, null if there is none or it has expired
      */
     @Override
     public AuthData getAuth(String authToken) {
-        return authTokens.get(authToken);
+        return use(authToken);
     }
 
     /**
@@ -59,11 +83,49 @@ public class MemoryAuthDAO implements AuthDAO {
      */
     @Override
     public boolean deleteAuth(String authToken) {
-        if (authTokens.containsKey(authToken)) {
-            authTokens.remove(authToken);
-            return true;
-        } else {
-            return false;
+        return authTokens.remove(authToken) != null;
+    }
+
+    /**
+     * Deletes expired tokens
+     * @param limit the most tokens to delete
+     * @return how many were deleted
+     */
+    @Override
+    public int deleteExpired(int limit) {
+        long now = clock.getAsLong();
+        int deleted = 0;
+        var sessions = authTokens.values().iterator();
+        while (deleted < limit && sessions.hasNext()) {
+            Session session = sessions.next();
+            if (expiry.isExpired(session.created(), session.lastUsed(), now)) {
+                sessions.remove();
+                deleted++;
+            }
         }
+        return deleted;
+    }
+
+    /**
+     * Looks up a token, recording that it was used
+     * @return the token's AuthData, null if there is none or it has expired
+     */
+    private AuthData use(String authToken) {
+        Session session = authTokens.get(authToken);
+        if (session == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        if (expiry.isExpired(session.created(), session.lastUsed(), now)) {
+            return null;
+        }
+        if (expiry.needsTouch(session.lastUsed(), now)) {
+//            If the token was deleted or used again in the meantime, leave it be
+            authTokens.replace(authToken, session, new Session(session.authData(), session.created(), now));
+        }
+        return session.authData();
+    }
+
+    private record Session(AuthData authData, long created, long lastUsed) {
     }
 }
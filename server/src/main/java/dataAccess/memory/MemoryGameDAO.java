@@ -1,59 +1,218 @@
 package dataAccess.memory;
 
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.GameCodec;
 import dataAccess.GameDAO;
 import model.GameData;
+import model.GameQuery;
+import model.GameResponseData;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * An implementation of GameDAO to store GameData objects in memory
+ * An implementation of GameDAO to store GameData objects in memory.
+ * Safe to use from many threads. Each game's data and move log change together,
+ * and getGame hands out a copy of the game so callers can make moves on it
+ * without touching the stored one.
  */
 public class MemoryGameDAO implements GameDAO {
-    private final HashMap<Integer, GameData> gameList = new HashMap<>();
+    private final ConcurrentHashMap<Integer, GameData> gameList = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, ArrayList<ChessMove>> moveList = new ConcurrentHashMap<>();
 
     /**
      * Clears the entire GameDAO in memory
      */
     public void clear() {
         gameList.clear();
+        moveList.clear();
     }
 
     /**
-     * Adds a new game into a HashMap with gameIDs as keys
+     * Adds a new game into a map with gameIDs as keys, unless the ID is already taken
      * @param gameData GameData containing all necessary
+     * @return true if it was added, false if there's already a game with its ID
      */
     @Override
-    public void addGame(GameData gameData) {
-        var gameID = gameData.gameID();
-        gameList.put(gameID, gameData);
+    public boolean addGame(GameData gameData) {
+        var added = new AtomicBoolean();
+        gameList.computeIfAbsent(gameData.gameID(), gameID -> {
+            moveList.remove(gameID);
+            added.set(true);
+            return gameData;
+        });
+        return added.get();
     }
 
     /**
      * Returns a game associated with a specified ID
      * @param gameID the gameID of the game desired
-     * @return GameData object containing all the data on the game desired
+     * @return GameData object containing a copy of the game desired, null if there isn't one
      */
     @Override
     public GameData getGame(int gameID) {
-        return gameList.get(gameID);
+        GameData gameData = gameList.get(gameID);
+        if (gameData == null || gameData.game() == null) {
+            return gameData;
+        }
+        return new GameData(
+                gameData.gameID(),
+                gameData.whiteUsername(),
+                gameData.blackUsername(),
+                gameData.gameName(),
+                GameCodec.decode(GameCodec.encode(gameData.game())),
+                gameData.version());
     }
 
     /**
-     * Lists all the games in memory
-     * @return Collection of GameData objects - all games in memory
+     * Lists one page of the IDs, players and names of the games in memory that match a query
+     * @param query the filters, page size and where the page starts
+     * @return Collection of GameResponseData objects in order of gameID
      */
     @Override
-    public ArrayList<GameData> listGames() {
-        return (ArrayList<GameData>) gameList.values();
+    public ArrayList<GameResponseData> listGameSummaries(GameQuery query) {
+        ArrayList<GameResponseData> summaries = new ArrayList<>();
+        gameList.values().stream()
+                .filter(gameData -> query.matches(
+                        gameData.gameID(),
+                        gameData.whiteUsername(),
+                        gameData.blackUsername(),
+                        gameData.gameName(),
+                        gameData.game() != null && gameData.game().getTeamTurn() == ChessGame.TeamColor.NONE))
+                .sorted(Comparator.comparing(GameData::gameID))
+                .limit(query.limit())
+                .forEach(gameData -> summaries.add(new GameResponseData(
+                        gameData.gameID(),
+                        gameData.whiteUsername(),
+                        gameData.blackUsername(),
+                        gameData.gameName())));
+        return summaries;
     }
 
     /**
-     * Updates a specified game
+     * Updates a specified game, moving it to the next version whatever version it was at
      * @param gameData GameData object containing the updated game
      */
     @Override
     public void updateGame(GameData gameData) {
-        gameList.put(gameData.gameID(), gameData);
+        gameList.compute(gameData.gameID(), (gameID, old) -> nextVersion(old, gameData));
+    }
+
+    /**
+     * Updates a specified game if it is still at the version it was read at
+     * @param gameData GameData object containing the updated game
+     * @param expectedVersion the version the game was read at
+     * @return true if it was updated, false if the game changed or is gone
+     */
+    @Override
+    public boolean updateGame(GameData gameData, int expectedVersion) {
+        var updated = new AtomicBoolean();
+        gameList.computeIfPresent(gameData.gameID(), (gameID, old) -> {
+            if (old.version() != expectedVersion) {
+                return old;
+            }
+            updated.set(true);
+            return gameData.withVersion(expectedVersion + 1);
+        });
+        return updated.get();
+    }
+
+    /**
+     * Records a move made in a game, storing the game at the next version and logging the move as one change
+     * @param gameData GameData object containing the game after the move
+     * @param move the move that was made
+     */
+    @Override
+    public void appendMove(GameData gameData, ChessMove move) {
+        gameList.compute(gameData.gameID(), (gameID, old) -> {
+            moveList.computeIfAbsent(gameID, id -> new ArrayList<>()).add(move);
+            return nextVersion(old, gameData);
+        });
+    }
+
+    /**
+     * Records a move made in a game if the game is still at the version it was read at
+     * @param gameData GameData object containing the game after the move
+     * @param move the move that was made
+     * @param expectedVersion the version the game was read at
+     * @return true if the move was recorded, false if the game changed or is gone
+     */
+    @Override
+    public boolean appendMove(GameData gameData, ChessMove move, int expectedVersion) {
+        var appended = new AtomicBoolean();
+        gameList.computeIfPresent(gameData.gameID(), (gameID, old) -> {
+            if (old.version() != expectedVersion) {
+                return old;
+            }
+            moveList.computeIfAbsent(gameID, id -> new ArrayList<>()).add(move);
+            appended.set(true);
+            return gameData.withVersion(expectedVersion + 1);
+        });
+        return appended.get();
+    }
+
+    /**
+     * Records several moves made in a game, storing the game at the next version and logging the moves as one change
+     * @param gameData GameData object containing the game after the last move
+     * @param moves the moves that were made, in order
+     */
+    @Override
+    public void appendMoves(GameData gameData, List<ChessMove> moves) {
+        gameList.compute(gameData.gameID(), (gameID, old) -> {
+            moveList.computeIfAbsent(gameID, id -> new ArrayList<>()).addAll(moves);
+            return nextVersion(old, gameData);
+        });
+    }
+
+    /**
+     * Records several moves made in a game and stores the game as given, if the game is still
+     * at the version it was read at
+     * @param gameData GameData object containing the game after the last move, at its new version
+     * @param moves the moves that were made, in order
+     * @param expectedVersion the version the game was read at
+     * @return true if the moves were recorded, false if the game changed or is gone
+     */
+    @Override
+    public boolean appendMoves(GameData gameData, List<ChessMove> moves, int expectedVersion) {
+        var appended = new AtomicBoolean();
+        gameList.computeIfPresent(gameData.gameID(), (gameID, old) -> {
+            if (old.version() != expectedVersion) {
+                return old;
+            }
+            moveList.computeIfAbsent(gameID, id -> new ArrayList<>()).addAll(moves);
+            appended.set(true);
+            return gameData;
+        });
+        return appended.get();
+    }
+
+    /**
+     * Lists the moves made in a game
+     * @param gameID the gameID of the game
+     * @return the moves in the order they were made
+     */
+    @Override
+    public ArrayList<ChessMove> getMoves(int gameID) {
+//        Hold the game's entry so a move can't be logged while the log is copied
+        var moves = new ArrayList<ChessMove>();
+        gameList.compute(gameID, (id, gameData) -> {
+            moves.addAll(moveList.getOrDefault(id, new ArrayList<>()));
+            return gameData;
+        });
+        return moves;
+    }
+
+    /**
+     * @param old the stored game, null if there isn't one
+     * @param gameData the game replacing it
+     * @return the game at the version after the stored one, so a change made without a version
+     * check still shows up as a change
+     */
+    private static GameData nextVersion(GameData old, GameData gameData) {
+        return old != null ? gameData.withVersion(old.version() + 1) : gameData;
     }
 }
@@ -1,16 +1,17 @@
 package dataAccess.memory;
 
+import dataAccess.DataAccessException;
 import dataAccess.UserDAO;
 import model.UserData;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * An implementation of the UserDAO to store UserData in memory
+ * An implementation of the UserDAO to store UserData in memory, safe to use from many threads
  */
 public class MemoryUserDAO implements UserDAO {
 
-    private  final HashMap<String, UserData> allUsers = new HashMap<>();
+    private final ConcurrentHashMap<String, UserData> allUsers = new ConcurrentHashMap<>();
 
     /**
      * Indicates whether the specified username exists
@@ -33,9 +34,12 @@ public class MemoryUserDAO implements UserDAO {
     /**
      * Creates a new user by adding the UserData to the database
      * @param userData UserData object of the data to be added
+     * @throws DataAccessException if the username is already taken
      */
-    public void createUser(UserData userData) {
-        allUsers.put(userData.username(), userData);
+    public void createUser(UserData userData) throws DataAccessException {
+        if (allUsers.putIfAbsent(userData.username(), userData) != null) {
+            throw new DataAccessException("username already taken");
+        }
     }
 
     /**
@@ -4,32 +4,45 @@ import dataAccess.AuthDAO;
 import dataAccess.DataAccess;
 import dataAccess.DataAccessException;
 import dataAccess.DatabaseManager;
+import dataAccess.TokenExpiry;
 import exception.ResponseException;
 import model.AuthData;
 import model.UserData;
 
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.Objects;
 import java.util.UUID;
+import java.util.function.LongSupplier;
 
 /**
- * Provides access to the authorization data
+ * Provides access to the authorization data.
+ * Each token records when it was created and last used, in milliseconds, and
+ * expires as set by a TokenExpiry. Expired tokens are treated as missing and are
+ * removed by deleteExpired
  */
 public class MySQLAuthDAO implements AuthDAO {
-    private final Connection conn;
+    private final TokenExpiry expiry;
+    private final LongSupplier clock;
 
     /**
-     * Sets up the connection to the database
+     * Makes sure the database is set up; connections are borrowed from the pool per operation
+     * Tokens get the default expiry
      * @throws ResponseException If anything fails
      */
     public MySQLAuthDAO() throws ResponseException {
+        this(TokenExpiry.DEFAULT, System::currentTimeMillis);
+    }
+
+    /**
+     * Makes sure the database is set up; connections are borrowed from the pool per operation
+     * @param expiry when tokens expire
+     * @param clock gives the current time in milliseconds
+     * @throws ResponseException If anything fails
+     */
+    public MySQLAuthDAO(TokenExpiry expiry, LongSupplier clock) throws ResponseException {
+        this.expiry = expiry;
+        this.clock = clock;
         DataAccess.configureDatabase();
-        try {
-            conn = DatabaseManager.getConnection();
-        } catch (DataAccessException e) {
-            throw new ResponseException(500, e.getMessage());
-        }
     }
 
     /**
@@ -38,7 +51,8 @@ public class MySQLAuthDAO implements AuthDAO {
      */
     @Override
     public void clear() throws DataAccessException {
-        try (var preparedStatement = conn.prepareStatement("TRUNCATE TABLE AUTH")) {
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement("TRUNCATE TABLE AUTH")) {
             preparedStatement.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException(e.getMessage());
@@ -55,9 +69,13 @@ public class MySQLAuthDAO implements AuthDAO {
     @Override
     public AuthData createAuth(UserData userData) throws DataAccessException {
         var authToken = UUID.randomUUID().toString();
-        try (var preparedStatement = conn.prepareStatement("INSERT INTO AUTH (NAME, TOKEN) VALUE (?, ?)")) {
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement("INSERT INTO AUTH (NAME, TOKEN, CREATED, LAST_USED) VALUE (?, ?, ?, ?)")) {
+            long now = clock.getAsLong();
             preparedStatement.setString(1, userData.username());
             preparedStatement.setString(2, authToken);
+            preparedStatement.setLong(3, now);
+            preparedStatement.setLong(4, now);
 
             preparedStatement.executeUpdate();
 
@@ -75,11 +93,8 @@ public class MySQLAuthDAO implements AuthDAO {
      */
     @Override
     public boolean authExists(String authToken) throws DataAccessException {
-        try (var preparedStatement = conn.prepareStatement("SELECT TOKEN FROM AUTH WHERE TOKEN=?")) {
-            preparedStatement.setString(1, authToken);
-            try (var rs = preparedStatement.executeQuery()) {
-                return rs.next();
-            }
+        try (var conn = DatabaseManager.getConnection()) {
+            return use(conn, authToken) != null;
         } catch (SQLException ex) {
             throw new DataAccessException(ex.getMessage());
         }
@@ -88,23 +103,13 @@ public class MySQLAuthDAO implements AuthDAO {
     /**
      * Finds the user associated with a given authToken
      * @param authToken the token to search the database for
-     * @return AuthData object containing the user found
+     * @return AuthData object containing the user found, null if the token doesn't exist or has expired
      * @throws DataAccessException if anything fails in the query
      */
     @Override
     public AuthData getAuth(String authToken) throws DataAccessException {
-        try (var preparedStatement = conn.prepareStatement("SELECT NAME from AUTH where TOKEN=?")) {
-            preparedStatement.setString(1, authToken);
-            try (var rs = preparedStatement.executeQuery()) {
-                String username = "";
-                while (rs.next()) {
-                    username = rs.getString("NAME");
-                }
-                if (Objects.equals(username, "")) {
-                    throw new DataAccessException("invalid authorization token");
-                }
-                return new AuthData(username, authToken);
-            }
+        try (var conn = DatabaseManager.getConnection()) {
+            return use(conn, authToken);
         } catch (SQLException e) {
             throw new DataAccessException(e.getMessage());
         }
@@ -118,7 +123,8 @@ public class MySQLAuthDAO implements AuthDAO {
      */
     @Override
     public boolean deleteAuth(String authToken) throws DataAccessException {
-        try (var preparedStatement = conn.prepareStatement("DELETE FROM AUTH WHERE TOKEN=?")) {
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement("DELETE FROM AUTH WHERE TOKEN=?")) {
             preparedStatement.setString(1, authToken);
             int rowsAffected = preparedStatement.executeUpdate();
             return rowsAffected > 0;
@@ -127,4 +133,55 @@ public class MySQLAuthDAO implements AuthDAO {
         }
     }
 
+    /**
+     * Deletes expired tokens, at most limit of them, so a large backlog is cleared in
+     * short statements rather than one long one
+     * @param limit the most tokens to delete
+     * @return how many were deleted
+     * @throws DataAccessException if anything fails
+     */
+    @Override
+    public int deleteExpired(int limit) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement("DELETE FROM AUTH WHERE LAST_USED<=? OR CREATED<=? LIMIT ?")) {
+            long now = clock.getAsLong();
+            preparedStatement.setLong(1, expiry.idleCutoff(now));
+            preparedStatement.setLong(2, expiry.createdCutoff(now));
+            preparedStatement.setInt(3, limit);
+            return preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    /**
+     * Looks up a token, recording that it was used if the last recorded use is old enough
+     * @param conn the connection to use
+     * @param authToken the token to look up
+     * @return the token's AuthData, null if there is none or it has expired
+     * @throws SQLException if a query fails
+     */
+    private AuthData use(Connection conn, String authToken) throws SQLException {
+        long now = clock.getAsLong();
+        try (var preparedStatement = conn.prepareStatement("SELECT NAME, CREATED, LAST_USED FROM AUTH WHERE TOKEN=?")) {
+            preparedStatement.setString(1, authToken);
+            try (var rs = preparedStatement.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                long lastUsed = rs.getLong("LAST_USED");
+                if (expiry.isExpired(rs.getLong("CREATED"), lastUsed, now)) {
+                    return null;
+                }
+                if (expiry.needsTouch(lastUsed, now)) {
+                    try (var touchStatement = conn.prepareStatement("UPDATE AUTH SET LAST_USED=? WHERE TOKEN=?")) {
+                        touchStatement.setLong(1, now);
+                        touchStatement.setString(2, authToken);
+                        touchStatement.executeUpdate();
+                    }
+                }
+                return new AuthData(rs.getString("NAME"), authToken);
+            }
+        }
+    }
 }
@@ -1,6 +1,9 @@
 package dataAccess.mySQL;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.GameCodec;
+import chess.Move;
 import com.google.gson.Gson;
 import dataAccess.DataAccess;
 import dataAccess.DataAccessException;
@@ -8,26 +11,43 @@ import dataAccess.DatabaseManager;
 import dataAccess.GameDAO;
 import exception.ResponseException;
 import model.GameData;
+import model.GameQuery;
+import model.GameResponseData;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Stores games in MySQL.
+ * The GAME table holds a snapshot of each game in STATE, and each move after
+ * that is appended to GAME_MOVES. SNAPSHOT_PLY is how many of the logged moves
+ * the snapshot already includes, so a game is read by decoding the snapshot
+ * and replaying the moves after it. Once enough moves pile up past the
+ * snapshot, or the game ends, a new one is written.
+ * <p>
+ * VERSION goes up with every change made through the compare-and-set methods,
+ * which only write if it hasn't changed since the game was read.
+ */
 public class MySQLGameDAO implements GameDAO {
-    private final Connection conn;
+    /**
+     * How many moves can be logged past the snapshot before a new snapshot is written
+     */
+    public static final int SNAPSHOT_INTERVAL = 16;
+
+    private static final Gson gson = new Gson();
+//    MySQL's error code for a row that would duplicate a unique key
+    private static final int DUPLICATE_KEY = 1062;
 
     /**
      * Constructor for the SQL GameDAO
-     * Connects to the database
+     * Makes sure the database is set up; connections are borrowed from the pool per operation
      * @throws ResponseException if can't connect
      */
     public MySQLGameDAO() throws ResponseException {
         DataAccess.configureDatabase();
-        try {
-            conn = DatabaseManager.getConnection();
-        } catch (DataAccessException e) {
-            throw new ResponseException(500, e.getMessage());
-        }
     }
 
     /**
@@ -36,28 +56,51 @@ public class MySQLGameDAO implements GameDAO {
      */
     @Override
     public void clear() throws DataAccessException {
-        try (var preparedStatement = conn.prepareStatement("TRUNCATE TABLE GAME")) {
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement("TRUNCATE TABLE GAME");
+             var movesStatement = conn.prepareStatement("TRUNCATE TABLE GAME_MOVES")) {
             preparedStatement.executeUpdate();
+            movesStatement.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException(e.getMessage());
         }
     }
 
     /**
-     * Adds a game to the database
+     * Adds a game to the database. The primary key keeps an existing game with the same ID from being replaced
      * @param gameData object with the data of the game to be stored
+     * @return true if it was added, false if the ID is already taken
      * @throws DataAccessException If anything fails while storing
      */
     @Override
-    public void addGame(GameData gameData) throws DataAccessException {
-        try (var preparedStatement = conn.prepareStatement("INSERT INTO GAME (ID, WHITENAME, BLACKNAME, GAMENAME, JSON) VALUES(?, ?, ?, ?, ?)")) {
-            preparedStatement.setString(1, String.valueOf(gameData.gameID()));
-            preparedStatement.setString(2, gameData.whiteUsername());
-            preparedStatement.setString(3, gameData.blackUsername());
-            preparedStatement.setString(4, gameData.gameName());
-            preparedStatement.setString(5, new Gson().toJson(gameData.game()));
+    public boolean addGame(GameData gameData) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (var preparedStatement = conn.prepareStatement(
+                    "INSERT INTO GAME (ID, WHITENAME, BLACKNAME, GAMENAME, STATE, FINISHED, VERSION) VALUES(?, ?, ?, ?, ?, ?, ?)")) {
+                preparedStatement.setString(1, String.valueOf(gameData.gameID()));
+                preparedStatement.setString(2, gameData.whiteUsername());
+                preparedStatement.setString(3, gameData.blackUsername());
+                preparedStatement.setString(4, gameData.gameName());
+                preparedStatement.setBytes(5, GameCodec.encode(gameData.game()));
+                preparedStatement.setBoolean(6, isOver(gameData.game()));
+                preparedStatement.setInt(7, gameData.version());
 
-            preparedStatement.executeUpdate();
+                preparedStatement.executeUpdate();
+            } catch (SQLException e) {
+                if (e.getErrorCode() == DUPLICATE_KEY) {
+                    conn.rollback();
+                    return false;
+                }
+                throw e;
+            }
+//            Moves left over from a game with the same ID would be replayed onto this one
+            try (var deleteStatement = conn.prepareStatement("DELETE FROM GAME_MOVES WHERE GAME_ID=?")) {
+                deleteStatement.setInt(1, gameData.gameID());
+                deleteStatement.executeUpdate();
+            }
+            conn.commit();
+            return true;
         } catch (SQLException e) {
             throw new DataAccessException(e.getMessage());
         }
@@ -71,24 +114,24 @@ public class MySQLGameDAO implements GameDAO {
      */
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
-        try (var preparedStatement = conn.prepareStatement("SELECT * from GAME where ID=?")) {
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement("SELECT * from GAME where ID=?")) {
             preparedStatement.setString(1, String.valueOf(gameID));
             try (var rs = preparedStatement.executeQuery()) {
                 if (rs.next()) {
                     var whiteUsername = rs.getString("WHITENAME");
                     var blackUsername = rs.getString("BLACKNAME");
                     var gameName = rs.getString("GAMENAME");
-                    var game = new Gson().fromJson(
-                            rs.getString("JSON"),
-                            ChessGame.class
-                    );
+                    var game = readGame(rs);
+                    replayMoves(conn, gameID, rs.getInt("SNAPSHOT_PLY"), game);
 
                     return new GameData(
                             gameID,
                             whiteUsername,
                             blackUsername,
                             gameName,
-                            game
+                            game,
+                            rs.getInt("VERSION")
                     );
                 } else {
                     return null;
@@ -102,60 +145,393 @@ public class MySQLGameDAO implements GameDAO {
     }
 
     /**
-     * Lists all the games in the database
-     * @return Collection of all the games
+     * Lists one page of the IDs, players and names of the games that match a query.
+     * The filters are part of the query, which walks the primary key from the cursor
+     * and stops once the page is full, so the cost depends on the page size rather
+     * than how many games there are
+     * @param query the filters, page size and where the page starts
+     * @return Collection of GameResponseData in order of gameID
      * @throws DataAccessException if anything fails
      */
     @Override
-    public ArrayList<GameData> listGames() throws DataAccessException {
-        ArrayList<GameData> gameList = new ArrayList<>();
+    public ArrayList<GameResponseData> listGameSummaries(GameQuery query) throws DataAccessException {
+        var sql = new StringBuilder("SELECT ID, WHITENAME, BLACKNAME, GAMENAME FROM GAME WHERE ID > ?");
+        var params = new ArrayList<Object>();
+        params.add(query.after() != null ? query.after() : Integer.MIN_VALUE);
+        if (query.openSeat() != null) {
+            sql.append(query.openSeat()
+                    ? " AND (WHITENAME IS NULL OR BLACKNAME IS NULL)"
+                    : " AND WHITENAME IS NOT NULL AND BLACKNAME IS NOT NULL");
+        }
+        if (query.player() != null) {
+            sql.append(" AND (WHITENAME = ? OR BLACKNAME = ?)");
+            params.add(query.player());
+            params.add(query.player());
+        }
+        if (query.namePrefix() != null) {
+            sql.append(" AND GAMENAME LIKE ?");
+            params.add(escapeLike(query.namePrefix()) + "%");
+        }
+        if (query.finished() != null) {
+            sql.append(" AND FINISHED = ?");
+            params.add(query.finished());
+        }
+        sql.append(" ORDER BY ID LIMIT ?");
+        params.add(query.limit());
 
-        try (var preparedStatement = conn.prepareStatement("SELECT * from GAME")) {
+        ArrayList<GameResponseData> summaries = new ArrayList<>();
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                preparedStatement.setObject(i + 1, params.get(i));
+            }
             try (var rs = preparedStatement.executeQuery()) {
                 while (rs.next()) {
-                    int gameID = rs.getInt("ID");
-                    var whiteUsername = rs.getString("WHITENAME");
-                    var blackUsername = rs.getString("BLACKNAME");
-                    var gameName = rs.getString("GAMENAME");
-                    var game = new Gson().fromJson(
-                            rs.getString("JSON"),
-                            ChessGame.class
-                    );
-
-                    gameList.add(new GameData(
-                            gameID,
-                            whiteUsername,
-                            blackUsername,
-                            gameName,
-                            game
+                    summaries.add(new GameResponseData(
+                            rs.getInt("ID"),
+                            rs.getString("WHITENAME"),
+                            rs.getString("BLACKNAME"),
+                            rs.getString("GAMENAME")
                     ));
                 }
             }
         } catch (SQLException e) {
             throw new DataAccessException(e.getMessage());
         }
-
-        return gameList;
+        return summaries;
     }
 
     /**
      * Updates a game using new information for the game
+     * Writes a full snapshot of the game, covering every move logged so far, and moves it to
+     * the next version whatever version it was at
      * @param newGame GameData object containing data for the new game
      * @throws DataAccessException if anything fails
      */
     @Override
     public void updateGame(GameData newGame) throws DataAccessException {
-        try (var preparedStatement = conn.prepareStatement(
-                "UPDATE GAME SET WHITENAME=?, BLACKNAME=?, GAMENAME=?, JSON=? WHERE ID=?")) {
-            preparedStatement.setString(1, newGame.whiteUsername());
-            preparedStatement.setString(2, newGame.blackUsername());
-            preparedStatement.setString(3, newGame.gameName());
-            preparedStatement.setString(4, new Gson().toJson(newGame.game()));
-            preparedStatement.setString(5, String.valueOf(newGame.gameID()));
+        try (var conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            Integer version = lockVersion(conn, newGame.gameID());
+            if (version == null) {
+                conn.rollback();
+                return;
+            }
+            writeSnapshot(conn, newGame.withVersion(version + 1), null);
+            conn.commit();
+        } catch (SQLException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
 
-            preparedStatement.executeUpdate();
+    /**
+     * Updates a game if it is still at the version it was read at. The version is checked
+     * in the same statement that writes the snapshot, so no other server can change the
+     * game in between
+     * @param newGame GameData object containing data for the new game
+     * @param expectedVersion the version the game was read at
+     * @return true if the game was updated, false if it changed or doesn't exist
+     * @throws DataAccessException if anything fails
+     */
+    @Override
+    public boolean updateGame(GameData newGame, int expectedVersion) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            return writeSnapshot(conn, newGame.withVersion(expectedVersion + 1), expectedVersion) == 1;
+        } catch (SQLException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    /**
+     * Logs a move made in a game and moves it to the next version. Only the move
+     * is written, unless enough moves have been logged since the last snapshot that it's
+     * time for a new one or the game is over
+     * @param gameData the game, with the move already made
+     * @param move the move that was made
+     * @throws DataAccessException if anything fails
+     */
+    @Override
+    public void appendMove(GameData gameData, ChessMove move) throws DataAccessException {
+        appendMoves(gameData, List.of(move));
+    }
+
+    /**
+     * Logs a move made in a game if the game is still at the version it was read at.
+     * Bumping the version locks the game's row, so moves from other servers wait for this
+     * one and then find the version has changed
+     * @param gameData the game, with the move already made
+     * @param move the move that was made
+     * @param expectedVersion the version the game was read at
+     * @return true if the move was logged, false if the game changed or doesn't exist
+     * @throws DataAccessException if anything fails
+     */
+    @Override
+    public boolean appendMove(GameData gameData, ChessMove move, int expectedVersion) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (var versionStatement = conn.prepareStatement("UPDATE GAME SET VERSION=? WHERE ID=? AND VERSION=?")) {
+                versionStatement.setInt(1, expectedVersion + 1);
+                versionStatement.setInt(2, gameData.gameID());
+                versionStatement.setInt(3, expectedVersion);
+                if (versionStatement.executeUpdate() != 1) {
+                    conn.rollback();
+                    return false;
+                }
+            }
+            try (var preparedStatement = conn.prepareStatement(
+                    "INSERT INTO GAME_MOVES (GAME_ID, PLY, MOVE) " +
+                            "SELECT ?, COALESCE(MAX(PLY), 0) + 1, ? FROM GAME_MOVES WHERE GAME_ID=?")) {
+                preparedStatement.setInt(1, gameData.gameID());
+                preparedStatement.setInt(2, Move.of(move));
+                preparedStatement.setInt(3, gameData.gameID());
+                preparedStatement.executeUpdate();
+            }
+            snapshotIfDue(conn, gameData.withVersion(expectedVersion + 1));
+            conn.commit();
+            return true;
+        } catch (SQLException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    /**
+     * Logs several moves made in a game in one transaction and moves it to the next version
+     * whatever version it was at. The snapshot check is made once all of them are logged,
+     * since the game passed in is the state after the last one
+     * @param gameData the game, with the moves already made
+     * @param moves the moves that were made, in order
+     * @throws DataAccessException if anything fails, in which case none of the moves are logged
+     */
+    @Override
+    public void appendMoves(GameData gameData, List<ChessMove> moves) throws DataAccessException {
+        if (moves.isEmpty()) {
+            return;
+        }
+        try (var conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            Integer version = lockVersion(conn, gameData.gameID());
+            if (version == null) {
+                conn.rollback();
+                return;
+            }
+            insertMoves(conn, gameData.gameID(), moves);
+            var stored = gameData.withVersion(version + 1);
+            try (var versionStatement = conn.prepareStatement("UPDATE GAME SET VERSION=? WHERE ID=?")) {
+                versionStatement.setInt(1, stored.version());
+                versionStatement.setInt(2, gameData.gameID());
+                versionStatement.executeUpdate();
+            }
+            snapshotIfDue(conn, stored);
+            conn.commit();
         } catch (SQLException e) {
             throw new DataAccessException(e.getMessage());
         }
     }
+
+    /**
+     * Logs several moves made in a game and writes the game as given, if the game is still at
+     * the version it was read at. The game's row is locked before anything is written, so
+     * other servers wait for this one and then find the version has changed
+     * @param gameData the game, with the moves already made, at the version to store
+     * @param moves the moves that were made, in order
+     * @param expectedVersion the version the game was read at
+     * @return true if the game was written, false if it changed or doesn't exist
+     * @throws DataAccessException if anything fails, in which case nothing is written
+     */
+    @Override
+    public boolean appendMoves(GameData gameData, List<ChessMove> moves, int expectedVersion) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            Integer version = lockVersion(conn, gameData.gameID());
+            if (version == null || version != expectedVersion) {
+                conn.rollback();
+                return false;
+            }
+            insertMoves(conn, gameData.gameID(), moves);
+//            Snapshot every time; it's one row, and this runs at most once a flush per game
+            writeSnapshot(conn, gameData, null);
+            conn.commit();
+            return true;
+        } catch (SQLException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    /**
+     * Gets every move logged for a game
+     * @param gameID the ID of the game
+     * @return the moves in the order they were made
+     * @throws DataAccessException if anything fails
+     */
+    @Override
+    public ArrayList<ChessMove> getMoves(int gameID) throws DataAccessException {
+        ArrayList<ChessMove> moves = new ArrayList<>();
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement("SELECT MOVE FROM GAME_MOVES WHERE GAME_ID=? ORDER BY PLY")) {
+            preparedStatement.setInt(1, gameID);
+            try (var rs = preparedStatement.executeQuery()) {
+                while (rs.next()) {
+                    moves.add(Move.toChessMove(rs.getInt("MOVE")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+        return moves;
+    }
+
+    /**
+     * Locks a game's row until the transaction ends, so nothing else can change it in between
+     * @param conn the connection to lock with, which must not be in auto-commit
+     * @param gameID the ID of the game
+     * @return the version the game is at, null if it doesn't exist
+     * @throws SQLException if the query fails
+     */
+    private static Integer lockVersion(Connection conn, int gameID) throws SQLException {
+        try (var versionStatement = conn.prepareStatement("SELECT VERSION FROM GAME WHERE ID=? FOR UPDATE")) {
+            versionStatement.setInt(1, gameID);
+            try (var rs = versionStatement.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Logs moves after the last one logged for a game, whose row must already be locked
+     * @param conn the connection to write with
+     * @param gameID the ID of the game
+     * @param moves the moves that were made, in order
+     * @throws SQLException if the insert fails
+     */
+    private static void insertMoves(Connection conn, int gameID, List<ChessMove> moves) throws SQLException {
+        if (moves.isEmpty()) {
+            return;
+        }
+        int ply;
+        try (var plyStatement = conn.prepareStatement("SELECT COALESCE(MAX(PLY), 0) FROM GAME_MOVES WHERE GAME_ID=?")) {
+            plyStatement.setInt(1, gameID);
+            try (var rs = plyStatement.executeQuery()) {
+                ply = rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+        try (var preparedStatement = conn.prepareStatement("INSERT INTO GAME_MOVES (GAME_ID, PLY, MOVE) VALUES(?, ?, ?)")) {
+            for (var move : moves) {
+                preparedStatement.setInt(1, gameID);
+                preparedStatement.setInt(2, ++ply);
+                preparedStatement.setInt(3, Move.of(move));
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        }
+    }
+
+    /**
+     * Writes a game's players, name, version and a snapshot of its state, covering every move logged so far
+     * @param conn the connection to write with
+     * @param gameData the game to write
+     * @param expectedVersion only write if the stored game is at this version, null to write regardless
+     * @return how many games were written, 0 if the game doesn't exist or is at another version
+     * @throws SQLException if the update fails
+     */
+    private static int writeSnapshot(Connection conn, GameData gameData, Integer expectedVersion) throws SQLException {
+        try (var preparedStatement = conn.prepareStatement(
+                "UPDATE GAME SET WHITENAME=?, BLACKNAME=?, GAMENAME=?, STATE=?, FINISHED=?, VERSION=?, JSON=NULL, " +
+                        "SNAPSHOT_PLY=(SELECT COALESCE(MAX(PLY), 0) FROM GAME_MOVES WHERE GAME_ID=?) WHERE ID=?" +
+                        (expectedVersion != null ? " AND VERSION=?" : ""))) {
+            preparedStatement.setString(1, gameData.whiteUsername());
+            preparedStatement.setString(2, gameData.blackUsername());
+            preparedStatement.setString(3, gameData.gameName());
+            preparedStatement.setBytes(4, GameCodec.encode(gameData.game()));
+            preparedStatement.setBoolean(5, isOver(gameData.game()));
+            preparedStatement.setInt(6, gameData.version());
+            preparedStatement.setInt(7, gameData.gameID());
+            preparedStatement.setString(8, String.valueOf(gameData.gameID()));
+            if (expectedVersion != null) {
+                preparedStatement.setInt(9, expectedVersion);
+            }
+
+            return preparedStatement.executeUpdate();
+        }
+    }
+
+    /**
+     * Writes a new snapshot of a game once enough moves have piled up past the last one,
+     * or once the game is over so its result is stored
+     * @param conn the connection to write with
+     * @param gameData the game, with every logged move already made
+     * @throws SQLException if the check or the write fails
+     */
+    private static void snapshotIfDue(Connection conn, GameData gameData) throws SQLException {
+        if (isOver(gameData.game())) {
+            writeSnapshot(conn, gameData, null);
+            return;
+        }
+        try (var countStatement = conn.prepareStatement(
+                "SELECT COUNT(*) FROM GAME_MOVES m JOIN GAME g ON g.ID=m.GAME_ID " +
+                        "WHERE m.GAME_ID=? AND m.PLY > g.SNAPSHOT_PLY")) {
+            countStatement.setInt(1, gameData.gameID());
+            try (var rs = countStatement.executeQuery()) {
+                if (rs.next() && rs.getInt(1) >= SNAPSHOT_INTERVAL) {
+                    writeSnapshot(conn, gameData, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param game the game to check
+     * @return whether the game is over, which is when it's nobody's turn
+     */
+    private static boolean isOver(ChessGame game) {
+        return game != null && game.getTeamTurn() == ChessGame.TeamColor.NONE;
+    }
+
+    /**
+     * Escapes the characters LIKE treats as wildcards, so a name prefix is matched literally
+     * @param prefix the prefix to escape
+     * @return the prefix with %, _ and the escape character escaped
+     */
+    private static String escapeLike(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Plays the moves logged after a game's snapshot onto it
+     * @param conn the connection to read with
+     * @param gameID the ID of the game
+     * @param snapshotPly how many logged moves the snapshot already includes
+     * @param game the game decoded from the snapshot
+     * @throws SQLException if the moves can't be read
+     */
+    private static void replayMoves(Connection conn, int gameID, int snapshotPly, ChessGame game) throws SQLException {
+        try (var preparedStatement = conn.prepareStatement("SELECT MOVE FROM GAME_MOVES WHERE GAME_ID=? AND PLY>? ORDER BY PLY")) {
+            preparedStatement.setInt(1, gameID);
+            preparedStatement.setInt(2, snapshotPly);
+            try (var rs = preparedStatement.executeQuery()) {
+                while (rs.next()) {
+                    game.doMove(rs.getInt("MOVE"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the game from a row, using the binary STATE column if it is set and
+     * otherwise the JSON column rows were stored in before it existed
+     * @param rs result set positioned on a GAME row
+     * @return the game stored in the row
+     * @throws SQLException if the columns can't be read
+     * @throws DataAccessException if the stored state can't be decoded
+     */
+    private static ChessGame readGame(ResultSet rs) throws SQLException, DataAccessException {
+        var state = rs.getBytes("STATE");
+        if (state == null) {
+            return gson.fromJson(rs.getString("JSON"), ChessGame.class);
+        }
+        try {
+            return GameCodec.decode(state);
+        } catch (IllegalArgumentException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
 }
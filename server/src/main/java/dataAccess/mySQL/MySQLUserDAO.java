@@ -7,7 +7,6 @@ import dataAccess.UserDAO;
 import exception.ResponseException;
 import model.UserData;
 
-import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Objects;
 
@@ -15,19 +14,13 @@ import java.util.Objects;
  * Class to provide access to the database for UserData
  */
 public class MySQLUserDAO implements UserDAO {
-    private final Connection conn;
 
     /**
-     * Connects to the database
+     * Makes sure the database is set up; connections are borrowed from the pool per operation
      * @throws ResponseException if connection fails
      */
     public MySQLUserDAO() throws ResponseException {
         DataAccess.configureDatabase();
-        try {
-            conn = DatabaseManager.getConnection();
-        } catch (DataAccessException e) {
-            throw new ResponseException(500, e.getMessage());
-        }
     }
 
     /**
@@ -38,7 +31,8 @@ public class MySQLUserDAO implements UserDAO {
      */
     @Override
     public boolean isUser(UserData userData) throws DataAccessException {
-        try (var preparedStatement = conn.prepareStatement("SELECT NAME FROM USERS WHERE NAME=?")) {
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement("SELECT NAME FROM USERS WHERE NAME=?")) {
             preparedStatement.setString(1, userData.username());
             try (var rs = preparedStatement.executeQuery()) {
                 return rs.next();
@@ -56,7 +50,8 @@ public class MySQLUserDAO implements UserDAO {
      */
     @Override
     public UserData getUser(String username) throws DataAccessException {
-        try (var preparedStatement = conn.prepareStatement("SELECT PASSWORD, EMAIL from USERS where NAME=?")) {
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement("SELECT PASSWORD, EMAIL from USERS where NAME=?")) {
             preparedStatement.setString(1, username);
             try (var rs = preparedStatement.executeQuery()) {
                 String password = "";
@@ -82,7 +77,8 @@ public class MySQLUserDAO implements UserDAO {
      */
     @Override
     public void createUser(UserData userData) throws DataAccessException {
-        try (var preparedStatement = conn.prepareStatement("INSERT INTO USERS (NAME, PASSWORD, EMAIL) VALUE(?, ?, ?)")) {
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement("INSERT INTO USERS (NAME, PASSWORD, EMAIL) VALUE(?, ?, ?)")) {
             preparedStatement.setString(1, userData.username());
             preparedStatement.setString(2, userData.password());
             preparedStatement.setString(3, userData.email());
@@ -99,7 +95,8 @@ public class MySQLUserDAO implements UserDAO {
      */
     @Override
     public void clear() throws DataAccessException {
-        try (var preparedStatement = conn.prepareStatement("TRUNCATE TABLE USERS")) {
+        try (var conn = DatabaseManager.getConnection();
+             var preparedStatement = conn.prepareStatement("TRUNCATE TABLE USERS")) {
             preparedStatement.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException(e.getMessage());
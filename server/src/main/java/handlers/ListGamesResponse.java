@@ -7,6 +7,7 @@ import java.util.Collection;
 /**
  * Handles responses to listing the games by accepting a Collection of games as an attribute
  * @param games the Collection of GameResponseData to be returned
+ * @param next the gameID to list the next page after, null if this is the last page
  */
-public record ListGamesResponse(Collection<GameResponseData> games) {
+public record ListGamesResponse(Collection<GameResponseData> games, Integer next) {
 }
@@ -2,6 +2,11 @@ package server;
 
 import com.google.gson.Gson;
 import dataAccess.*;
+import dataAccess.cache.CachingAuthDAO;
+import dataAccess.cache.WriteBehindGameDAO;
+import dataAccess.memory.MemoryAuthDAO;
+import dataAccess.memory.MemoryGameDAO;
+import dataAccess.memory.MemoryUserDAO;
 import dataAccess.mySQL.MySQLAuthDAO;
 import dataAccess.mySQL.MySQLGameDAO;
 import dataAccess.mySQL.MySQLUserDAO;
@@ -14,13 +19,26 @@ import spark.*;
 import websocket.WebSocketHandler;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Initializes a server to run the chess games on
  */
 public class Server {
+//    Tokens are cached in memory so most requests don't query AUTH; the TTL bounds how long a
+//    token logged out through another server keeps working here
+    private static final int AUTH_CACHE_SIZE = 10_000;
+    private static final long AUTH_CACHE_TTL_MILLIS = 60_000;
+//    Expired tokens are deleted every few minutes, a thousand at a time
+    private static final long AUTH_REAP_PERIOD_MILLIS = 5 * 60_000;
+    private static final int AUTH_REAP_BATCH_SIZE = 1000;
+    private static final int AUTH_REAP_MAX_BATCHES = 20;
+//    Games being played are kept in memory and written every quarter second, so at most that
+//    much play is lost if the server dies; games untouched for ten minutes are let go
+    private static final long GAME_FLUSH_INTERVAL_MILLIS = 250;
+    private static final long GAME_IDLE_TIMEOUT_MILLIS = 10 * 60_000;
+//    Game listings can be paged; a request that asks for a page gets at most this many games
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
 
     private RegistrationService registrationService;
     private LoginService loginService;
@@ -31,14 +49,40 @@ public class Server {
     private ClearService clearService;
     private AuthenticationService authService;
     private WebSocketHandler webSocketHandler;
+    private AuthReaper authReaper;
+    private WriteBehindGameDAO gameCache;
+    private boolean usesDatabase;
 
 
 
+    /**
+     * Creates a server that stores everything in MySQL
+     */
     public Server() {
+        this(false);
+    }
+
+    /**
+     * Creates a server
+     * @param inMemory true to keep everything in memory instead of MySQL, so nothing
+     *                 survives a restart but no database is needed
+     */
+    public Server(boolean inMemory) {
         try {
-            AuthDAO authDAO = new MySQLAuthDAO();
-            UserDAO userDAO = new MySQLUserDAO();
-            GameDAO gameDAO = new MySQLGameDAO();
+            AuthDAO authDAO;
+            UserDAO userDAO;
+            GameDAO gameDAO;
+            if (inMemory) {
+                authDAO = new MemoryAuthDAO();
+                userDAO = new MemoryUserDAO();
+                gameDAO = new MemoryGameDAO();
+            } else {
+                usesDatabase = true;
+                authDAO = new CachingAuthDAO(new MySQLAuthDAO(), AUTH_CACHE_SIZE, AUTH_CACHE_TTL_MILLIS);
+                userDAO = new MySQLUserDAO();
+                gameCache = new WriteBehindGameDAO(new MySQLGameDAO(), GAME_IDLE_TIMEOUT_MILLIS);
+                gameDAO = gameCache;
+            }
 
             registrationService = new RegistrationService(userDAO, authDAO);
             loginService = new LoginService(userDAO, authDAO);
@@ -48,8 +92,12 @@ public class Server {
             gameService = new GameService(gameDAO);
             clearService = new ClearService(userDAO, authDAO, gameDAO);
             authService = new AuthenticationService(authDAO);
+            authReaper = new AuthReaper(authDAO, AUTH_REAP_BATCH_SIZE, AUTH_REAP_MAX_BATCHES);
 
-            webSocketHandler = new WebSocketHandler(gameService, loginService);
+            webSocketHandler = new WebSocketHandler(gameService, authService);
+            if (gameCache != null) {
+                gameCache.onConflict(webSocketHandler::reloadGame);
+            }
         } catch (ResponseException ex) {
             System.out.printf("Unable to connect to database: %s%n", ex.getMessage());
         }
@@ -70,11 +118,10 @@ public class Server {
         Spark.delete("/session", this::logoutUser);
 
         Spark.get("/game", this::getGames);
+        Spark.get("/game/:id", this::getGame);
         Spark.post("/game", this::createGame);
         Spark.put("/game", this::joinGame);
 
-        Spark.get("/objects", this::gameObjects);
-
         Spark.delete("/db", this::clearApp);
 
         Spark.exception(ResponseException.class, this::responseExceptionHandler);
@@ -82,6 +129,12 @@ public class Server {
         Spark.exception(IOException.class, this::ioExceptionHandler);
 
         Spark.awaitInitialization();
+        if (authReaper != null) {
+            authReaper.start(AUTH_REAP_PERIOD_MILLIS);
+        }
+        if (gameCache != null) {
+            gameCache.start(GAME_FLUSH_INTERVAL_MILLIS);
+        }
         return Spark.port();
     }
 
@@ -106,7 +159,22 @@ public class Server {
     }
 
     public void stop() {
+        if (authReaper != null) {
+            authReaper.close();
+        }
         Spark.stop();
+//        stop only begins shutting down, so wait for requests in flight to finish before the last write
+        Spark.awaitStop();
+        if (gameCache != null) {
+            try {
+                gameCache.close();
+            } catch (DataAccessException e) {
+                System.out.printf("Unable to write games on shutdown: %s%n", e.getMessage());
+            }
+        }
+        if (usesDatabase) {
+            DatabaseManager.closePool();
+        }
     }
 
     /** Registers new users
@@ -153,42 +221,121 @@ public class Server {
      */
     private Object logoutUser(Request request, Response response) throws ResponseException, DataAccessException {
         response.type("application/json");
-        var authToken = new LogoutRequest(request.headers("authorization"));
-        authService.authenticate(authToken.authToken());
-
-        logoutService.logoutUser(authToken);
+        logoutService.logoutUser(new LogoutRequest(request.headers("authorization")));
         response.status(200);
         return "{}";
     }
 
     /**
-     * Lists all the games for the user to see
-     * @param request HTTP request - header is probed for authorization
+     * Lists a page of the games for the user to see
+     * @param request HTTP request - header is probed for authorization; the query string can
+     *                have limit, after (the next value of the page before), open, player,
+     *                prefix and finished, and every matching game is listed without limit or after
      * @param response HTTP response
-     * @return JSON containing a collection of the games
-     * @throws ResponseException If user is unauthorized
+     * @return JSON containing a collection of the games and where the next page starts
+     * @throws ResponseException If user is unauthorized or the query string is invalid
      * @throws DataAccessException If error occurs while communicating with database
      */
     private Object getGames(Request request, Response response) throws ResponseException, DataAccessException {
-        var authToken = request.headers("authorization");
-        authService.authenticate(authToken);
+        authService.resolve(request.headers("authorization"));
 
-        ArrayList<GameResponseData> allGames = listService.getGames();
+        ListGamesResponse page = listService.getGames(parseGameQuery(request));
 
         response.status(200);
-        response.body(new Gson().toJson(new ListGamesResponse(allGames)));
-        return new Gson().toJson(new ListGamesResponse(allGames));
+        response.body(new Gson().toJson(page));
+        return new Gson().toJson(page);
     }
 
-    private Object gameObjects(Request request, Response response) throws ResponseException, DataAccessException {
-        var authToken = request.headers("authorization");
-        authService.authenticate(authToken);
+    /**
+     * Reads a game listing query from a request's query string
+     * @param request HTTP request
+     * @return the query, for every game on one page if neither limit nor after is given
+     * @throws ResponseException If a parameter isn't valid
+     */
+    private static GameQuery parseGameQuery(Request request) throws ResponseException {
+        Integer limit = parseInteger(request.queryParams("limit"));
+        Integer after = parseInteger(request.queryParams("after"));
+        if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+            throw new ResponseException(400, "error: bad request");
+        }
+//        Clients from before paging send neither and expect the whole list
+        GameQuery query = limit == null && after == null ? GameQuery.all()
+                : GameQuery.page(limit != null ? limit : DEFAULT_PAGE_SIZE);
+        return query
+                .withAfter(after)
+                .withOpenSeat(parseBoolean(request.queryParams("open")))
+                .withPlayer(request.queryParams("player"))
+                .withNamePrefix(request.queryParams("prefix"))
+                .withFinished(parseBoolean(request.queryParams("finished")));
+    }
 
-        ConcurrentHashMap<Integer, GameData> games = listService.getGameObjects();
+    private static Integer parseInteger(String value) throws ResponseException {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseException(400, "error: bad request");
+        }
+    }
+
+    private static Boolean parseBoolean(String value) throws ResponseException {
+        if (value == null) {
+            return null;
+        }
+        return switch (value) {
+            case "true" -> true;
+            case "false" -> false;
+            default -> throw new ResponseException(400, "error: bad request");
+        };
+    }
+
+    /**
+     * Gets one game, including its board
+     * The response has an ETag, and a request whose If-None-Match has it gets an empty
+     * 304 response instead, so a client that already has the game doesn't download it again
+     * @param request HTTP request - path contains the gameID, header contains authorization
+     *                and optionally If-None-Match
+     * @param response HTTP response
+     * @return JSON of the game, or nothing if the client's copy is current
+     * @throws ResponseException If the user is unauthorized or there's no such game
+     * @throws DataAccessException If error occurs while communicating with database
+     */
+    private Object getGame(Request request, Response response) throws ResponseException, DataAccessException {
+        authService.resolve(request.headers("authorization"));
 
+        Integer gameID = parseInteger(request.params(":id"));
+        GameData gameData = gameID != null ? gameService.getGame(gameID) : null;
+        if (gameData == null) {
+            throw new ResponseException(404, "error: game not found");
+        }
+
+        String etag = GameService.etag(gameData);
+        response.header("ETag", etag);
+        response.header("Cache-Control", "private, no-cache");
+        if (matchesETag(request.headers("If-None-Match"), etag)) {
+            response.status(304);
+            return "";
+        }
+
+        response.type("application/json");
         response.status(200);
-        response.body(new Gson().toJson(new GameObjects(games)));
-        return new Gson().toJson(new GameObjects(games));
+        response.body(new Gson().toJson(gameData));
+        return new Gson().toJson(gameData);
+    }
+
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (var candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || candidate.equals(etag) || candidate.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -199,10 +346,7 @@ public class Server {
      * @throws ResponseException If the user is unauthorized
      */
     private Object joinGame(Request request, Response response) throws ResponseException, DataAccessException, IOException {
-        var authToken = request.headers("authorization");
-        authService.authenticate(authToken);
-
-        AuthData authData = authService.getAuthData(authToken);
+        AuthData authData = authService.resolve(request.headers("authorization"));
 
         var joinInfo = new Gson().fromJson(request.body(), JoinGameRequest.class);
 
@@ -220,8 +364,7 @@ public class Server {
      * @throws ResponseException If the user is unauthorized
      */
     private Object createGame(Request request, Response response) throws ResponseException, DataAccessException {
-        var authToken = request.headers("authorization");
-        authService.authenticate(authToken);
+        authService.resolve(request.headers("authorization"));
 
         var newGame = new Gson().fromJson(request.body(), CreateGameRequest.class);
         GameID gameID = gameService.createGame(newGame);
@@ -1,7 +1,7 @@
 package websocket;
 
 import Service.GameService;
-import Service.LoginService;
+import Service.AuthenticationService;
 import chess.ChessGame;
 import chess.InvalidMoveException;
 import com.google.gson.Gson;
@@ -26,11 +26,11 @@ public class WebSocketHandler {
     private final ConnectionManager connections = new ConnectionManager();
 
     private final GameService gameService;
-    private final LoginService loginService;
+    private final AuthenticationService authService;
 
-    public WebSocketHandler(GameService gameService, LoginService loginService) {
+    public WebSocketHandler(GameService gameService, AuthenticationService authService) {
         this.gameService = gameService;
-        this.loginService = loginService;
+        this.authService = authService;
     }
 
 
@@ -54,63 +54,88 @@ public class WebSocketHandler {
         }
     }
 
-    private void getGame(GetGameCommand getGameCommand) throws DataAccessException, IOException {
+    private void getGame(GetGameCommand getGameCommand) throws DataAccessException, IOException, ResponseException {
         var gameData = this.gameService.getGame(getGameCommand.getGameID());
-        String username = loginService.getUser(getGameCommand.getAuthString());
+        String username = authService.resolve(getGameCommand.getAuthString()).username();
 
         var loadGame = new LoadGameMessage(gameData);
         connections.sendMessage(username, new Gson().toJson(loadGame));
     }
 
     private void resignGame(ResignCommand command) throws DataAccessException, IOException, ResponseException {
-        String username = loginService.getUser(command.getAuthString());
-        var gameData = this.gameService.getGame(command.getGameID());
-
-        if (!Objects.equals(gameData.whiteUsername(), username) && !Objects.equals(gameData.blackUsername(), username)) {
-            throw new ResponseException(401, "Can't resign as an observer");
-        }
-        if (gameData.game().getTeamTurn() == ChessGame.TeamColor.NONE) {
-            throw new ResponseException(400, "Already resigned");
-        }
+        String username = authService.resolve(command.getAuthString()).username();
+        for (int attempt = 0; attempt < GameService.UPDATE_ATTEMPTS; attempt++) {
+            var gameData = this.gameService.getGame(command.getGameID());
 
-        gameData.game().setTeamTurn(ChessGame.TeamColor.NONE);
-        gameService.updateGame(gameData);
+            if (!Objects.equals(gameData.whiteUsername(), username) && !Objects.equals(gameData.blackUsername(), username)) {
+                throw new ResponseException(401, "Can't resign as an observer");
+            }
+            if (gameData.game().getTeamTurn() == ChessGame.TeamColor.NONE) {
+                throw new ResponseException(400, "Already resigned");
+            }
 
-        var message = new NotificationMessage(String.format("Player %s has resigned the game.", username));
-        connections.broadcast(null, new Gson().toJson(message));
+            gameData.game().setTeamTurn(ChessGame.TeamColor.NONE);
+            if (gameService.updateGame(gameData, gameData.version())) {
+                var message = new NotificationMessage(String.format("Player %s has resigned the game.", username));
+                connections.broadcast(null, new Gson().toJson(message));
+                return;
+            }
+        }
+        throw new ResponseException(409, "Game changed, try again");
     }
 
-    private void leaveGame(LeaveCommand leaveCommand) throws DataAccessException, IOException {
-        String username = loginService.getUser(leaveCommand.getAuthString());
+    private void leaveGame(LeaveCommand leaveCommand) throws DataAccessException, IOException, ResponseException {
+        String username = authService.resolve(leaveCommand.getAuthString()).username();
         connections.remove(username);
         var notification = new NotificationMessage(String.format("Player %s has left the game.", username));
         connections.broadcast(username, new Gson().toJson(notification));
     }
 
     private void makeMove(MakeMoveCommand command) throws DataAccessException, InvalidMoveException, IOException, ResponseException {
-        String username = loginService.getUser(command.getAuthString());
-        var gameData = this.gameService.getGame(command.getGameID());
-        ChessGame.TeamColor color = gameData.game().getTeamTurn();
-        String turn = switch (color) {
-            case WHITE -> gameData.whiteUsername();
-            case BLACK -> gameData.blackUsername();
-            case NONE -> throw new InvalidMoveException("Game is over, can't make moves");
-        };
-
-        if (!Objects.equals(turn, username)) {
-            throw new ResponseException(400, "Not your turn");
-        }
+        String username = authService.resolve(command.getAuthString()).username();
+//        If the game changes before the move is saved, the move is checked again against the new state
+        for (int attempt = 0; attempt < GameService.UPDATE_ATTEMPTS; attempt++) {
+            var gameData = this.gameService.getGame(command.getGameID());
+            ChessGame.TeamColor color = gameData.game().getTeamTurn();
+            String turn = switch (color) {
+                case WHITE -> gameData.whiteUsername();
+                case BLACK -> gameData.blackUsername();
+                case NONE -> throw new InvalidMoveException("Game is over, can't make moves");
+            };
+
+            if (!Objects.equals(turn, username)) {
+                throw new ResponseException(400, "Not your turn");
+            }
 
-        gameData.game().makeMove(command.getMove());
-        this.gameService.updateGame(gameData);
+            var game = gameData.game();
+            String report = null;
+            try {
+                game.makeMove(command.getMove());
+            } catch (InvalidMoveException e) {
+//                Check, checkmate and stalemate are reported after the move has been made, so it still needs saving
+                if (game.getTeamTurn() == color) {
+                    throw e;
+                }
+                report = e.getMessage();
+            }
+            if (!this.gameService.recordMove(gameData, command.getMove(), gameData.version())) {
+                continue;
+            }
 
-        connections.broadcastGame(new LoadGameMessage(gameData));
-        var notification = new NotificationMessage("Move " + command.getMove().toString() + " made by " + username);
-        connections.broadcast(username, new Gson().toJson(notification));
+//            Everyone gets the new board before hearing what the move did
+            connections.broadcastGame(new LoadGameMessage(gameData.withVersion(gameData.version() + 1)));
+            var notification = new NotificationMessage("Move " + command.getMove().toString() + " made by " + username);
+            connections.broadcast(username, new Gson().toJson(notification));
+            if (report != null) {
+                connections.broadcast(null, new Gson().toJson(new NotificationMessage(report)));
+            }
+            return;
+        }
+        throw new ResponseException(409, "Game changed, try again");
     }
 
     private void joinObserver(JoinObserverCommand command, Session session) throws DataAccessException, IOException, ResponseException {
-        String username = loginService.getUser(command.getAuthString());
+        String username = authService.resolve(command.getAuthString()).username();
         connections.add(username, session);
         var gameData = this.gameService.getGame(command.getGameID());
         if (gameData == null) {
@@ -123,8 +148,8 @@ public class WebSocketHandler {
         sendGame(gameData, ChessGame.TeamColor.WHITE, username);
     }
 
-    public void joinPlayer(JoinPlayerCommand command, Session session) throws DataAccessException, IOException {
-        String username = loginService.getUser(command.getAuthString());
+    public void joinPlayer(JoinPlayerCommand command, Session session) throws DataAccessException, IOException, ResponseException {
+        String username = authService.resolve(command.getAuthString()).username();
         connections.add(username, session);
         var gameData = this.gameService.getGame(command.getGameID());
         if (!username.equals(getUsername(gameData, command.getPlayerColor()))) {
@@ -138,6 +163,25 @@ public class WebSocketHandler {
         }
     }
 
+    /**
+     * Sends everyone the stored copy of a game after moves they were shown couldn't be saved,
+     * because the game was changed on another server first
+     * @param gameID the ID of the game
+     */
+    public void reloadGame(int gameID) {
+        try {
+            var gameData = this.gameService.getGame(gameID);
+            if (gameData == null) {
+                return;
+            }
+            connections.broadcastGame(new LoadGameMessage(gameData));
+            var notification = new NotificationMessage("The game was changed elsewhere; the latest moves were undone");
+            connections.broadcast(null, new Gson().toJson(notification));
+        } catch (DataAccessException | IOException e) {
+            System.out.printf("Unable to reload game %d: %s%n", gameID, e.getMessage());
+        }
+    }
+
     public void sendGame(GameData game, ChessGame.TeamColor color, String player) throws IOException {
         var message = new LoadGameMessage(game);
         message.setColor(color);
@@ -2,6 +2,7 @@ package dataAccessTests;
 
 import dataAccess.AuthDAO;
 import dataAccess.DataAccessException;
+import dataAccess.TokenExpiry;
 import dataAccess.mySQL.MySQLAuthDAO;
 import exception.ResponseException;
 import model.UserData;
@@ -10,10 +11,13 @@ import org.junit.jupiter.api.Test;
 
 public class AuthDAOTests {
     private static final AuthDAO authDAO;
+    private static final AuthDAO expiringDAO;
+    private static long now = 1_000_000;
 
     static {
         try {
             authDAO = new MySQLAuthDAO();
+            expiringDAO = new MySQLAuthDAO(new TokenExpiry(1000, 10_000), () -> now);
         } catch (ResponseException e) {
             throw new RuntimeException(e);
         }
@@ -75,7 +79,7 @@ public class AuthDAOTests {
         UserData userData = new UserData("name", "pass", "email");
         try {
             authDAO.createAuth(userData);
-            Assertions.assertThrows(DataAccessException.class, () -> authDAO.getAuth("random"));
+            Assertions.assertNull(authDAO.getAuth("random"));
         } catch (DataAccessException e) {
             Assertions.fail();
         }
@@ -116,4 +120,51 @@ public class AuthDAOTests {
             Assertions.fail();
         }
     }
+
+    @Test
+    void testTokenExpires() {
+        UserData userData = new UserData("name", "pass", "email");
+        try {
+            var authData = expiringDAO.createAuth(userData);
+            now += 999;
+            Assertions.assertTrue(expiringDAO.authExists(authData.authToken()));
+            now += 1000;
+            Assertions.assertFalse(expiringDAO.authExists(authData.authToken()));
+            Assertions.assertNull(expiringDAO.getAuth(authData.authToken()));
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testUseExtendsToken() {
+        UserData userData = new UserData("name", "pass", "email");
+        try {
+            var authData = expiringDAO.createAuth(userData);
+            for (int i = 0; i < 5; i++) {
+                now += 600;
+                Assertions.assertEquals(authData, expiringDAO.getAuth(authData.authToken()));
+            }
+            now += 10_000;
+            Assertions.assertFalse(expiringDAO.authExists(authData.authToken()));
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testDeleteExpired() {
+        UserData userData = new UserData("name", "pass", "email");
+        try {
+            var expired = expiringDAO.createAuth(userData);
+            now += 1000;
+            var fresh = expiringDAO.createAuth(userData);
+
+            Assertions.assertTrue(expiringDAO.deleteExpired(100) >= 1);
+            Assertions.assertFalse(expiringDAO.deleteAuth(expired.authToken()));
+            Assertions.assertTrue(expiringDAO.authExists(fresh.authToken()));
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+    }
 }
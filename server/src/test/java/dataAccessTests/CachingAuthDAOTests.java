@@ -0,0 +1,123 @@
+package dataAccessTests;
+
+import dataAccess.DataAccessException;
+import dataAccess.cache.CachingAuthDAO;
+import dataAccess.memory.MemoryAuthDAO;
+import model.AuthData;
+import model.UserData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CachingAuthDAOTests {
+    private CountingAuthDAO memoryDAO;
+    private CachingAuthDAO authDAO;
+    private long now;
+
+    /**
+     * MemoryAuthDAO that counts how many times tokens are looked up
+     */
+    private static class CountingAuthDAO extends MemoryAuthDAO {
+        int lookups = 0;
+
+        @Override
+        public boolean authExists(String authToken) {
+            lookups++;
+            return super.authExists(authToken);
+        }
+
+        @Override
+        public AuthData getAuth(String authToken) {
+            lookups++;
+            return super.getAuth(authToken);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        now = 0;
+        memoryDAO = new CountingAuthDAO();
+        authDAO = new CachingAuthDAO(memoryDAO, 2, 1000, () -> now);
+    }
+
+    @Test
+    void testCreatedTokenIsCached() {
+        try {
+            AuthData authData = authDAO.createAuth(new UserData("name", "pass", "email"));
+            Assertions.assertTrue(authDAO.authExists(authData.authToken()));
+            Assertions.assertEquals(authData, authDAO.getAuth(authData.authToken()));
+            Assertions.assertEquals(0, memoryDAO.lookups);
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testMissLoadsFromDAO() {
+        AuthData authData = memoryDAO.createAuth(new UserData("name", "pass", "email"));
+        try {
+            Assertions.assertEquals(authData, authDAO.getAuth(authData.authToken()));
+            Assertions.assertEquals(authData, authDAO.getAuth(authData.authToken()));
+            Assertions.assertEquals(1, memoryDAO.lookups);
+            Assertions.assertFalse(authDAO.authExists("missing"));
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testDeleteInvalidates() {
+        try {
+            AuthData authData = authDAO.createAuth(new UserData("name", "pass", "email"));
+            Assertions.assertTrue(authDAO.deleteAuth(authData.authToken()));
+            Assertions.assertFalse(authDAO.authExists(authData.authToken()));
+            Assertions.assertEquals(0, authDAO.size());
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testExpiredTokenIsLookedUpAgain() {
+        try {
+            AuthData authData = authDAO.createAuth(new UserData("name", "pass", "email"));
+            memoryDAO.deleteAuth(authData.authToken());
+            Assertions.assertTrue(authDAO.authExists(authData.authToken()));
+
+            now = 1000;
+            Assertions.assertFalse(authDAO.authExists(authData.authToken()));
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testLeastRecentlyUsedEvicted() {
+        try {
+            AuthData first = authDAO.createAuth(new UserData("first", "pass", "email"));
+            AuthData second = authDAO.createAuth(new UserData("second", "pass", "email"));
+            authDAO.getAuth(first.authToken());
+            authDAO.createAuth(new UserData("third", "pass", "email"));
+
+            Assertions.assertEquals(2, authDAO.size());
+            authDAO.getAuth(first.authToken());
+            Assertions.assertEquals(0, memoryDAO.lookups);
+            authDAO.getAuth(second.authToken());
+            Assertions.assertEquals(1, memoryDAO.lookups);
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testClear() {
+        try {
+            AuthData authData = authDAO.createAuth(new UserData("name", "pass", "email"));
+            authDAO.clear();
+            Assertions.assertEquals(0, authDAO.size());
+            Assertions.assertFalse(authDAO.authExists(authData.authToken()));
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package dataAccessTests;
+
+import dataAccess.ConnectionPool;
+import dataAccess.DataAccessException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+public class ConnectionPoolTests {
+
+    /**
+     * Stands in for a database connection, tracking only whether it has been closed
+     */
+    private static class FakeConnections implements ConnectionPool.ConnectionFactory {
+        final ArrayList<boolean[]> opened = new ArrayList<>();
+
+        @Override
+        public Connection create() {
+            boolean[] closed = {false};
+            opened.add(closed);
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            closed[0] = true;
+                            yield null;
+                        }
+                        case "isClosed" -> closed[0];
+                        case "isValid", "getAutoCommit" -> !closed[0];
+                        default -> null;
+                    });
+        }
+    }
+
+    @Test
+    void testReusesConnections() {
+        var factory = new FakeConnections();
+        try (var pool = new ConnectionPool(factory, 2, 100, 0)) {
+            try (var conn = pool.getConnection()) {
+                Assertions.assertEquals(1, pool.activeCount());
+            }
+            try (var conn = pool.getConnection()) {
+                Assertions.assertFalse(conn.isClosed());
+            }
+
+            Assertions.assertEquals(1, factory.opened.size());
+            Assertions.assertEquals(0, pool.activeCount());
+            Assertions.assertEquals(1, pool.idleCount());
+            Assertions.assertFalse(factory.opened.get(0)[0]);
+        } catch (DataAccessException | SQLException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testBounded() {
+        try (var pool = new ConnectionPool(new FakeConnections(), 1, 50, 0)) {
+            try (var conn = pool.getConnection()) {
+                Assertions.assertThrows(DataAccessException.class, pool::getConnection);
+            }
+            Assertions.assertDoesNotThrow(() -> pool.getConnection().close());
+        } catch (DataAccessException | SQLException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testReturnedConnectionUnusable() {
+        try (var pool = new ConnectionPool(new FakeConnections(), 1, 50, 0)) {
+            var conn = pool.getConnection();
+            conn.close();
+//            Closing twice mustn't give the connection back twice
+            conn.close();
+
+            Assertions.assertTrue(conn.isClosed());
+            Assertions.assertThrows(SQLException.class, conn::createStatement);
+            Assertions.assertEquals(1, pool.idleCount());
+        } catch (DataAccessException | SQLException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testDropsClosedConnections() {
+        var factory = new FakeConnections();
+        try (var pool = new ConnectionPool(factory, 1, 50, 0)) {
+            try (var conn = pool.getConnection()) {
+                factory.opened.get(0)[0] = true;
+            }
+            Assertions.assertEquals(0, pool.idleCount());
+
+            try (var conn = pool.getConnection()) {
+                Assertions.assertFalse(conn.isClosed());
+            }
+            Assertions.assertEquals(2, factory.opened.size());
+        } catch (DataAccessException | SQLException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testClose() {
+        var factory = new FakeConnections();
+        var pool = new ConnectionPool(factory, 1, 50, 0);
+        try {
+            pool.getConnection().close();
+        } catch (DataAccessException | SQLException e) {
+            Assertions.fail();
+        }
+        pool.close();
+
+        Assertions.assertTrue(factory.opened.get(0)[0]);
+        Assertions.assertThrows(DataAccessException.class, pool::getConnection);
+    }
+}
@@ -1,15 +1,23 @@
 package dataAccessTests;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
 import dataAccess.DataAccessException;
 import dataAccess.GameDAO;
 import dataAccess.mySQL.MySQLGameDAO;
 import exception.ResponseException;
 import model.GameData;
+import model.GameQuery;
+import model.GameResponseData;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 
 public class GameDAOTests {
 
@@ -33,6 +41,7 @@ public class GameDAOTests {
                 new ChessGame()
         );
         try {
+            dao.clear();
             dao.addGame(gameData);
         } catch (DataAccessException e) {
             throw new RuntimeException(e.getMessage());
@@ -42,14 +51,33 @@ public class GameDAOTests {
     @Test
     void testAddGame() {
         GameData gameData = new GameData(
-                1,
+                3,
                 "patrick",
                 "ben",
                 "coolestGame",
                 new ChessGame()
         );
 
-        Assertions.assertDoesNotThrow(() -> dao.addGame(gameData));
+        try {
+            Assertions.assertTrue(dao.addGame(gameData));
+            Assertions.assertEquals(gameData, dao.getGame(3));
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testAddDuplicateGame() {
+        try {
+            dao.appendMove(dao.getGame(1), new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+//            A new game with a taken ID is turned away rather than replacing the game and its moves
+            Assertions.assertFalse(dao.addGame(new GameData(1, null, null, "otherGame", new ChessGame())));
+            Assertions.assertEquals("coolestGame", dao.getGame(1).gameName());
+            Assertions.assertEquals(1, dao.getMoves(1).size());
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
     }
 
     @Test
@@ -94,7 +122,7 @@ public class GameDAOTests {
 
     @Test
     void testListGames() {
-        Assertions.assertDoesNotThrow(dao::listGames);
+        Assertions.assertDoesNotThrow(() -> dao.listGameSummaries(GameQuery.all()));
     }
 
     @Test
@@ -107,12 +135,97 @@ public class GameDAOTests {
                 new ChessGame()
         );
         try {
-            Assertions.assertTrue(dao.listGames().contains(gameData));
+            Assertions.assertTrue(dao.listGameSummaries(GameQuery.all()).contains(
+                    new GameResponseData(gameData.gameID(), gameData.whiteUsername(), gameData.blackUsername(), gameData.gameName())));
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testListGameSummaries() {
+        try {
+            Assertions.assertTrue(dao.listGameSummaries(GameQuery.page(10)).contains(
+                    new GameResponseData(1, "patrick", "ben", "coolestGame")));
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testListGameSummariesPaged() {
+        try {
+            var finished = new ChessGame();
+            finished.setTeamTurn(ChessGame.TeamColor.NONE);
+            dao.addGame(new GameData(2, null, null, "open_game", new ChessGame()));
+            dao.addGame(new GameData(3, "patrick", null, "openGame", new ChessGame()));
+            dao.addGame(new GameData(4, "ethan", "ben", "doneGame", finished));
+
+            var firstPage = dao.listGameSummaries(GameQuery.page(2));
+            Assertions.assertEquals(List.of(1, 2), firstPage.stream().map(GameResponseData::gameID).toList());
+            var secondPage = dao.listGameSummaries(GameQuery.page(2).withAfter(2));
+            Assertions.assertEquals(List.of(3, 4), secondPage.stream().map(GameResponseData::gameID).toList());
+
+            Assertions.assertEquals(2, dao.listGameSummaries(GameQuery.page(10).withOpenSeat(true)).size());
+            Assertions.assertEquals(2, dao.listGameSummaries(GameQuery.page(10).withPlayer("patrick")).size());
+            Assertions.assertEquals(2, dao.listGameSummaries(GameQuery.page(10).withPlayer("ben")).size());
+//            The underscore is matched literally rather than as a wildcard
+            Assertions.assertEquals(List.of(new GameResponseData(2, null, null, "open_game")),
+                    dao.listGameSummaries(GameQuery.page(10).withNamePrefix("open_")));
+            Assertions.assertEquals(List.of(new GameResponseData(4, "ethan", "ben", "doneGame")),
+                    dao.listGameSummaries(GameQuery.page(10).withFinished(true)));
         } catch (DataAccessException e) {
             Assertions.fail();
         }
     }
 
+    @Test
+    void testCompareAndSet() {
+        try {
+            var gameData = dao.getGame(1);
+            int version = gameData.version();
+            var move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+            gameData.game().makeMove(move);
+
+            Assertions.assertTrue(dao.appendMove(gameData, move, version));
+//            A second writer that read the same version loses
+            Assertions.assertFalse(dao.appendMove(gameData, move, version));
+            Assertions.assertFalse(dao.updateGame(new GameData(1, "patrick", "ethan", "coolestGame", gameData.game()), version));
+            Assertions.assertTrue(dao.updateGame(new GameData(1, "patrick", "ethan", "coolestGame", gameData.game()), version + 1));
+
+            var stored = dao.getGame(1);
+            Assertions.assertEquals(version + 2, stored.version());
+            Assertions.assertEquals("ethan", stored.blackUsername());
+            Assertions.assertEquals(1, dao.getMoves(1).size());
+        } catch (DataAccessException | InvalidMoveException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testAppendMovesCompareAndSet() {
+        try {
+            var gameData = dao.getGame(1);
+            int version = gameData.version();
+            var first = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+            var second = new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null);
+            gameData.game().makeMove(first);
+            gameData.game().makeMove(second);
+            var batch = new GameData(1, "patrick", "ethan", "coolestGame", gameData.game()).withVersion(version + 2);
+
+            Assertions.assertTrue(dao.appendMoves(batch, List.of(first, second), version));
+//            A batch queued over the old version loses
+            Assertions.assertFalse(dao.appendMoves(batch, List.of(first, second), version));
+
+            var stored = dao.getGame(1);
+            Assertions.assertEquals(version + 2, stored.version());
+            Assertions.assertEquals("ethan", stored.blackUsername());
+            Assertions.assertEquals(2, dao.getMoves(1).size());
+        } catch (DataAccessException | InvalidMoveException e) {
+            Assertions.fail();
+        }
+    }
+
     @Test
     void testUpdate() {
         GameData gameData = new GameData(
@@ -135,8 +248,11 @@ public class GameDAOTests {
                 new ChessGame()
         );
         try {
+            int version = dao.getGame(1).version();
             dao.updateGame(gameData);
             Assertions.assertEquals(gameData, dao.getGame(1));
+//            A write without a version check is still a change, so cached copies see it as one
+            Assertions.assertEquals(version + 1, dao.getGame(1).version());
         } catch (DataAccessException e) {
             Assertions.fail();
         }
@@ -158,4 +274,78 @@ public class GameDAOTests {
             Assertions.fail();
         }
     }
+
+    @Test
+    void testAppendMove() {
+        ChessGame game = new ChessGame();
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        try {
+            game.makeMove(move);
+            dao.appendMove(new GameData(1, "patrick", "ben", "coolestGame", game), move);
+
+            var gotGame = dao.getGame(1);
+            Assertions.assertEquals(game.getBoard(), gotGame.game().getBoard());
+            Assertions.assertEquals(ChessGame.TeamColor.BLACK, gotGame.game().getTeamTurn());
+            Assertions.assertEquals(1, dao.getMoves(1).size());
+            Assertions.assertEquals(move, dao.getMoves(1).get(0));
+        } catch (DataAccessException | InvalidMoveException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testReplayPastSnapshot() {
+//        Knights hopping out and back, enough moves to pass a snapshot
+        ChessMove[] cycle = {
+                new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+                new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+                new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null),
+                new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null)
+        };
+        ChessGame game = new ChessGame();
+        ArrayList<ChessMove> made = new ArrayList<>();
+        try {
+            for (int i = 0; i < dataAccess.mySQL.MySQLGameDAO.SNAPSHOT_INTERVAL + 3; i++) {
+                var move = cycle[i % cycle.length];
+                game.makeMove(move);
+                made.add(move);
+                dao.appendMove(new GameData(1, "patrick", "ben", "coolestGame", game), move);
+            }
+
+            var gotGame = dao.getGame(1);
+            Assertions.assertEquals(game.getBoard(), gotGame.game().getBoard());
+            Assertions.assertEquals(game.getTeamTurn(), gotGame.game().getTeamTurn());
+            Assertions.assertEquals(made, dao.getMoves(1));
+        } catch (DataAccessException | InvalidMoveException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testAppendMovesBatch() {
+//        One batch long enough to need a snapshot, which has to cover every move in it
+        ChessMove[] cycle = {
+                new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+                new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+                new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null),
+                new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null)
+        };
+        ChessGame game = new ChessGame();
+        ArrayList<ChessMove> made = new ArrayList<>();
+        try {
+            for (int i = 0; i < dataAccess.mySQL.MySQLGameDAO.SNAPSHOT_INTERVAL + 3; i++) {
+                var move = cycle[i % cycle.length];
+                game.makeMove(move);
+                made.add(move);
+            }
+            dao.appendMoves(new GameData(1, "patrick", "ben", "coolestGame", game), made);
+
+            var gotGame = dao.getGame(1);
+            Assertions.assertEquals(game.getBoard(), gotGame.game().getBoard());
+            Assertions.assertEquals(game.getTeamTurn(), gotGame.game().getTeamTurn());
+            Assertions.assertEquals(made, dao.getMoves(1));
+        } catch (DataAccessException | InvalidMoveException e) {
+            Assertions.fail();
+        }
+    }
 }
@@ -0,0 +1,117 @@
+package dataAccessTests;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import dataAccess.memory.MemoryGameDAO;
+import model.GameData;
+import model.GameQuery;
+import model.GameResponseData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class MemoryGameDAOTests {
+    private MemoryGameDAO gameDAO;
+
+    @BeforeEach
+    void setUp() {
+        gameDAO = new MemoryGameDAO();
+    }
+
+    @Test
+    void testListGames() {
+        for (int i = 0; i < 3; i++) {
+            gameDAO.addGame(new GameData(i, null, null, "game" + i, new ChessGame()));
+        }
+        Assertions.assertEquals(3, gameDAO.listGameSummaries(GameQuery.all()).size());
+    }
+
+    @Test
+    void testListGameSummariesPaged() {
+        var finished = new ChessGame();
+        finished.setTeamTurn(ChessGame.TeamColor.NONE);
+        gameDAO.addGame(new GameData(4, "ethan", "ben", "doneGame", finished));
+        gameDAO.addGame(new GameData(2, null, null, "openGame", new ChessGame()));
+        gameDAO.addGame(new GameData(3, "patrick", null, "otherGame", new ChessGame()));
+        gameDAO.addGame(new GameData(1, "patrick", "ben", "coolestGame", new ChessGame()));
+
+//        Pages come in order of gameID whatever order the games were added in
+        var firstPage = gameDAO.listGameSummaries(GameQuery.page(3));
+        Assertions.assertEquals(List.of(1, 2, 3), firstPage.stream().map(GameResponseData::gameID).toList());
+        var secondPage = gameDAO.listGameSummaries(GameQuery.page(3).withAfter(3));
+        Assertions.assertEquals(List.of(4), secondPage.stream().map(GameResponseData::gameID).toList());
+
+        Assertions.assertEquals(2, gameDAO.listGameSummaries(GameQuery.page(10).withOpenSeat(true)).size());
+        Assertions.assertEquals(2, gameDAO.listGameSummaries(GameQuery.page(10).withOpenSeat(false)).size());
+        Assertions.assertEquals(2, gameDAO.listGameSummaries(GameQuery.page(10).withPlayer("patrick")).size());
+        Assertions.assertEquals(2, gameDAO.listGameSummaries(GameQuery.page(10).withNamePrefix("o")).size());
+        Assertions.assertEquals(List.of(new GameResponseData(4, "ethan", "ben", "doneGame")),
+                gameDAO.listGameSummaries(GameQuery.page(10).withFinished(true)));
+        Assertions.assertEquals(List.of(new GameResponseData(3, "patrick", null, "otherGame")),
+                gameDAO.listGameSummaries(GameQuery.page(10).withPlayer("patrick").withOpenSeat(true).withFinished(false)));
+    }
+
+    @Test
+    void testAddDuplicateGame() {
+        Assertions.assertTrue(gameDAO.addGame(new GameData(1, null, null, "game", new ChessGame())));
+        gameDAO.appendMove(gameDAO.getGame(1), new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+
+        Assertions.assertFalse(gameDAO.addGame(new GameData(1, null, null, "otherGame", new ChessGame())));
+        Assertions.assertEquals("game", gameDAO.getGame(1).gameName());
+        Assertions.assertEquals(1, gameDAO.getMoves(1).size());
+    }
+
+    @Test
+    void testUnversionedWritesBumpVersion() {
+        gameDAO.addGame(new GameData(1, null, null, "game", new ChessGame()));
+        gameDAO.updateGame(new GameData(1, "white", null, "game", new ChessGame()));
+        gameDAO.appendMove(gameDAO.getGame(1), new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+
+        Assertions.assertEquals(2, gameDAO.getGame(1).version());
+        Assertions.assertFalse(gameDAO.updateGame(new GameData(1, "other", null, "game", new ChessGame()), 0));
+    }
+
+    @Test
+    void testGetGameReturnsCopy() {
+        gameDAO.addGame(new GameData(1, null, null, "game", new ChessGame()));
+        var gameData = gameDAO.getGame(1);
+        try {
+            gameData.game().makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        } catch (Exception e) {
+            Assertions.fail();
+        }
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, gameDAO.getGame(1).game().getTeamTurn());
+        Assertions.assertEquals(new ChessGame().toFen(), gameDAO.getGame(1).game().toFen());
+    }
+
+    @Test
+    void testConcurrentAppends() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            ArrayList<Future<?>> futures = new ArrayList<>();
+            for (int gameID = 0; gameID < 8; gameID++) {
+                gameDAO.addGame(new GameData(gameID, null, null, "game", new ChessGame()));
+            }
+            var move = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+            for (int i = 0; i < 8000; i++) {
+                int gameID = i % 8;
+                futures.add(executor.submit(() -> gameDAO.appendMove(gameDAO.getGame(gameID), move)));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        for (int gameID = 0; gameID < 8; gameID++) {
+            Assertions.assertEquals(1000, gameDAO.getMoves(gameID).size());
+        }
+    }
+}
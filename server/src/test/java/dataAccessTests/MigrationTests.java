@@ -0,0 +1,43 @@
+package dataAccessTests;
+
+import dataAccess.DataAccess;
+import dataAccess.DataAccessException;
+import dataAccess.DatabaseManager;
+import exception.ResponseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+public class MigrationTests {
+
+    @BeforeAll
+    static void configure() throws ResponseException {
+        DataAccess.configureDatabase();
+    }
+
+    @Test
+    void testSchemaUpToDate() {
+        try (var conn = DatabaseManager.getConnection()) {
+            Assertions.assertEquals(DataAccess.LATEST_VERSION, DataAccess.schemaVersion(conn));
+        } catch (DataAccessException | SQLException e) {
+            Assertions.fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testMigrateTwiceDoesNothing() {
+        try (var conn = DatabaseManager.getConnection()) {
+            Assertions.assertEquals(0, DataAccess.migrate(conn));
+            Assertions.assertEquals(DataAccess.LATEST_VERSION, DataAccess.schemaVersion(conn));
+        } catch (DataAccessException | SQLException e) {
+            Assertions.fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testConfigureTwice() {
+        Assertions.assertDoesNotThrow(DataAccess::configureDatabase);
+    }
+}
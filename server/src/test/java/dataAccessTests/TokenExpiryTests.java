@@ -0,0 +1,77 @@
+package dataAccessTests;
+
+import dataAccess.AuthReaper;
+import dataAccess.DataAccessException;
+import dataAccess.TokenExpiry;
+import dataAccess.memory.MemoryAuthDAO;
+import model.AuthData;
+import model.UserData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TokenExpiryTests {
+    private final TokenExpiry expiry = new TokenExpiry(1000, 10_000);
+    private MemoryAuthDAO authDAO;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        now = 0;
+        authDAO = new MemoryAuthDAO(expiry, () -> now);
+    }
+
+    @Test
+    void testIsExpired() {
+        Assertions.assertFalse(expiry.isExpired(0, 0, 999));
+        Assertions.assertTrue(expiry.isExpired(0, 0, 1000));
+        Assertions.assertFalse(expiry.isExpired(0, 9500, 9999));
+        Assertions.assertTrue(expiry.isExpired(0, 9500, 10_000));
+        Assertions.assertFalse(new TokenExpiry(1000, 0).isExpired(0, 99_500, 100_000));
+    }
+
+    @Test
+    void testInvalidExpiry() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TokenExpiry(0, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TokenExpiry(1000, -1));
+    }
+
+    @Test
+    void testMemoryTokenExpires() {
+        AuthData authData = authDAO.createAuth(new UserData("name", "pass", "email"));
+        now = 999;
+        Assertions.assertEquals(authData, authDAO.getAuth(authData.authToken()));
+        now = 2000;
+        Assertions.assertNull(authDAO.getAuth(authData.authToken()));
+        Assertions.assertFalse(authDAO.authExists(authData.authToken()));
+    }
+
+    @Test
+    void testMemoryUseExtendsToken() {
+        AuthData authData = authDAO.createAuth(new UserData("name", "pass", "email"));
+        for (int i = 0; i < 5; i++) {
+            now += 600;
+            Assertions.assertTrue(authDAO.authExists(authData.authToken()));
+        }
+        now = 10_000;
+        Assertions.assertFalse(authDAO.authExists(authData.authToken()));
+    }
+
+    @Test
+    void testReaperDeletesInBatches() {
+        for (int i = 0; i < 25; i++) {
+            authDAO.createAuth(new UserData("name" + i, "pass", "email"));
+        }
+        now = 1000;
+        AuthData fresh = authDAO.createAuth(new UserData("fresh", "pass", "email"));
+
+        try (var reaper = new AuthReaper(authDAO, 10, 2)) {
+            Assertions.assertEquals(20, reaper.reap());
+            Assertions.assertEquals(5, reaper.reap());
+            Assertions.assertEquals(0, reaper.reap());
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+        Assertions.assertTrue(authDAO.authExists(fresh.authToken()));
+    }
+}
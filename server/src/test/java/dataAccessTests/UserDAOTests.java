@@ -7,6 +7,7 @@ import exception.ResponseException;
 import model.UserData;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 
@@ -26,6 +27,11 @@ public class UserDAOTests {
     public UserDAOTests() {
     }
 
+    @BeforeEach
+    void clearBefore() {
+        clearAll();
+    }
+
     @AfterAll
     static void clearAll() {
         try {
@@ -52,6 +58,19 @@ public class UserDAOTests {
         )));
     }
 
+    @Test
+    void testCreateDuplicateUser() {
+        try {
+            userDAO.createUser(new UserData("name", "pass", "email"));
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+        Assertions.assertThrows(DataAccessException.class, () -> userDAO.createUser(new UserData(
+                "name",
+                "other",
+                "other")));
+    }
+
     @Test
     void testIsUser() {
         try {
@@ -0,0 +1,266 @@
+package dataAccessTests;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import dataAccess.DataAccessException;
+import dataAccess.cache.WriteBehindGameDAO;
+import dataAccess.memory.MemoryGameDAO;
+import model.GameData;
+import model.GameQuery;
+import model.GameResponseData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class WriteBehindGameDAOTests {
+    private static final ChessMove MOVE = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+
+    private FailingGameDAO memoryDAO;
+    private WriteBehindGameDAO gameDAO;
+    private long now;
+
+    /**
+     * MemoryGameDAO that can be made to fail writes
+     */
+    private static class FailingGameDAO extends MemoryGameDAO {
+        boolean failing = false;
+        int batches = 0;
+
+        @Override
+        public boolean appendMoves(GameData gameData, List<ChessMove> moves, int expectedVersion) {
+            if (failing) {
+                throw new IllegalStateException("database down");
+            }
+            batches++;
+            return super.appendMoves(gameData, moves, expectedVersion);
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        now = 0;
+        memoryDAO = new FailingGameDAO();
+        gameDAO = new WriteBehindGameDAO(memoryDAO, 1000, () -> now);
+        gameDAO.addGame(new GameData(1, null, null, "game", new ChessGame()));
+    }
+
+    private GameData makeMove() throws Exception {
+        var gameData = gameDAO.getGame(1);
+        gameData.game().makeMove(MOVE);
+        gameDAO.appendMove(gameData, MOVE);
+        return gameData;
+    }
+
+    @Test
+    void testMovesWrittenOnFlush() {
+        try {
+            makeMove();
+            Assertions.assertEquals(ChessGame.TeamColor.BLACK, gameDAO.getGame(1).game().getTeamTurn());
+            Assertions.assertEquals(ChessGame.TeamColor.WHITE, memoryDAO.getGame(1).game().getTeamTurn());
+            Assertions.assertEquals(1, gameDAO.getMoves(1).size());
+
+            Assertions.assertEquals(1, gameDAO.flush());
+            Assertions.assertEquals(ChessGame.TeamColor.BLACK, memoryDAO.getGame(1).game().getTeamTurn());
+            Assertions.assertEquals(1, memoryDAO.getMoves(1).size());
+            Assertions.assertEquals(1, gameDAO.getMoves(1).size());
+        } catch (Exception e) {
+            Assertions.fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testChangesCoalesced() {
+        try {
+            var gameData = gameDAO.getGame(1);
+            for (int i = 0; i < 5; i++) {
+                gameDAO.appendMove(gameData, MOVE);
+            }
+            gameDAO.updateGame(new GameData(1, "white", null, "game", gameData.game()));
+
+            Assertions.assertEquals(1, gameDAO.pendingCount());
+            Assertions.assertEquals(1, gameDAO.flush());
+            Assertions.assertEquals(1, memoryDAO.batches);
+            Assertions.assertEquals(5, memoryDAO.getMoves(1).size());
+            Assertions.assertEquals("white", memoryDAO.getGame(1).whiteUsername());
+        } catch (DataAccessException e) {
+            Assertions.fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testSummariesShowUnwrittenPlayers() {
+        try {
+            var gameData = gameDAO.getGame(1);
+            gameDAO.updateGame(new GameData(1, "white", null, "game", gameData.game()));
+
+            Assertions.assertEquals(List.of(new GameResponseData(1, "white", null, "game")), gameDAO.listGameSummaries(GameQuery.page(10)));
+        } catch (DataAccessException e) {
+            Assertions.fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testFilteredSummariesSeeUnwrittenPlayers() {
+        try {
+            var gameData = gameDAO.getGame(1);
+            gameDAO.updateGame(new GameData(1, "white", "black", "game", gameData.game()));
+
+//            The game is full now, even though the join hasn't been written
+            Assertions.assertTrue(gameDAO.listGameSummaries(GameQuery.page(10).withOpenSeat(true)).isEmpty());
+            Assertions.assertEquals(1, gameDAO.pendingCount());
+            Assertions.assertNull(memoryDAO.getGame(1).blackUsername());
+        } catch (DataAccessException e) {
+            Assertions.fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testPageFilledAroundUnwrittenChanges() {
+        try {
+            for (int gameID = 2; gameID <= 4; gameID++) {
+                gameDAO.addGame(new GameData(gameID, null, null, "game", new ChessGame()));
+            }
+            var gameData = gameDAO.getGame(1);
+            gameDAO.updateGame(new GameData(1, "white", "black", "game", gameData.game()));
+
+//            Game 1 is stored as open, but the page still holds two open games
+            Assertions.assertEquals(List.of(
+                    new GameResponseData(2, null, null, "game"),
+                    new GameResponseData(3, null, null, "game")),
+                    gameDAO.listGameSummaries(GameQuery.page(2).withOpenSeat(true)));
+        } catch (DataAccessException e) {
+            Assertions.fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testCompareAndSet() {
+        try {
+            var gameData = gameDAO.getGame(1);
+            int version = gameData.version();
+            gameData.game().makeMove(MOVE);
+
+            Assertions.assertTrue(gameDAO.appendMove(gameData, MOVE, version));
+            Assertions.assertFalse(gameDAO.updateGame(new GameData(1, "white", null, "game", gameData.game()), version));
+            Assertions.assertTrue(gameDAO.updateGame(new GameData(1, "white", null, "game", gameData.game()), version + 1));
+            Assertions.assertEquals(version + 2, gameDAO.getGame(1).version());
+
+//            The version is written along with the changes, so it survives the game being evicted
+            gameDAO.flush();
+            Assertions.assertEquals(version + 2, memoryDAO.getGame(1).version());
+            Assertions.assertEquals(1, memoryDAO.getMoves(1).size());
+        } catch (Exception e) {
+            Assertions.fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testConflictingFlushDropped() {
+        var reloaded = new ArrayList<Integer>();
+        gameDAO.onConflict(reloaded::add);
+        try {
+            var gameData = gameDAO.getGame(1);
+            int version = gameData.version();
+            gameData.game().makeMove(MOVE);
+            Assertions.assertTrue(gameDAO.appendMove(gameData, MOVE, version));
+
+//            Another server changes the stored game before the move is flushed
+            var stored = memoryDAO.getGame(1);
+            Assertions.assertTrue(memoryDAO.updateGame(new GameData(1, "other", null, "game", stored.game()), version));
+
+            Assertions.assertEquals(0, gameDAO.flush());
+            Assertions.assertEquals(1, gameDAO.conflictCount());
+            Assertions.assertEquals(List.of(1), reloaded);
+            Assertions.assertEquals(0, gameDAO.pendingCount());
+            Assertions.assertTrue(memoryDAO.getMoves(1).isEmpty());
+            Assertions.assertEquals("other", memoryDAO.getGame(1).whiteUsername());
+
+//            The stored game replaces the resident one
+            var current = gameDAO.getGame(1);
+            Assertions.assertEquals("other", current.whiteUsername());
+            Assertions.assertEquals(version + 1, current.version());
+            Assertions.assertEquals(ChessGame.TeamColor.WHITE, current.game().getTeamTurn());
+        } catch (Exception e) {
+            Assertions.fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testUnversionedChangeChecked() {
+        try {
+            var gameData = gameDAO.getGame(1);
+//            Another server changes the stored game, then this one updates its stale resident copy
+            Assertions.assertTrue(memoryDAO.updateGame(new GameData(1, "other", null, "game", gameData.game()), gameData.version()));
+            gameDAO.updateGame(new GameData(1, "white", null, "game", gameData.game()));
+
+            Assertions.assertEquals(0, gameDAO.flush());
+            Assertions.assertEquals(1, gameDAO.conflictCount());
+            Assertions.assertEquals("other", memoryDAO.getGame(1).whiteUsername());
+        } catch (DataAccessException e) {
+            Assertions.fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testFailedFlushRequeued() {
+        try {
+            makeMove();
+            memoryDAO.failing = true;
+            Assertions.assertThrows(DataAccessException.class, gameDAO::flush);
+            Assertions.assertEquals(1, gameDAO.pendingCount());
+
+            memoryDAO.failing = false;
+            gameDAO.flush();
+            Assertions.assertEquals(0, gameDAO.pendingCount());
+            Assertions.assertEquals(1, memoryDAO.getMoves(1).size());
+        } catch (Exception e) {
+            Assertions.fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testIdleGamesEvicted() {
+        try {
+            makeMove();
+            now = 500;
+            gameDAO.flush();
+            Assertions.assertEquals(1, gameDAO.residentCount());
+
+            now = 2000;
+            gameDAO.flush();
+            Assertions.assertEquals(0, gameDAO.residentCount());
+            Assertions.assertEquals(ChessGame.TeamColor.BLACK, gameDAO.getGame(1).game().getTeamTurn());
+            Assertions.assertEquals(1, gameDAO.residentCount());
+        } catch (Exception e) {
+            Assertions.fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testCloseFlushes() {
+        try {
+            makeMove();
+            gameDAO.close();
+            Assertions.assertEquals(1, memoryDAO.getMoves(1).size());
+        } catch (Exception e) {
+            Assertions.fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testClear() {
+        try {
+            makeMove();
+            gameDAO.clear();
+            Assertions.assertNull(gameDAO.getGame(1));
+            Assertions.assertEquals(0, gameDAO.flush());
+            Assertions.assertTrue(gameDAO.listGameSummaries(GameQuery.all()).isEmpty());
+        } catch (Exception e) {
+            Assertions.fail(e.getMessage());
+        }
+    }
+}
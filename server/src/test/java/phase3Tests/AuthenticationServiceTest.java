@@ -1,6 +1,7 @@
 package phase3Tests;
 
 import Service.AuthenticationService;
+import dataAccess.AuthDAO;
 import dataAccess.DataAccessException;
 import dataAccess.memory.MemoryAuthDAO;
 import exception.ResponseException;
@@ -21,27 +22,34 @@ public class AuthenticationServiceTest {
 
 
     @Test
-    void testAuthenticate() throws ResponseException, DataAccessException {
+    void testResolve() throws ResponseException, DataAccessException {
         UserData userData = new UserData("patrick", "12345", "test@email.com");
 
         AuthData authData = authDAO.createAuth(userData);
 
-//        Negative test case
-        Assertions.assertThrows(ResponseException.class, () -> service.authenticate("fakeAuth"));
 //        Positive test case
-        Assertions.assertTrue(service.authenticate(authData.authToken()));
+        Assertions.assertEquals(authData, service.resolve(authData.authToken()));
+//        Negative test cases
+        Assertions.assertThrows(ResponseException.class, () -> service.resolve("fake auth"));
+        Assertions.assertThrows(ResponseException.class, () -> service.resolve(null));
     }
 
     @Test
-    void testGetAuthData() throws DataAccessException {
-        UserData userData = new UserData("patrick", "12345", "test@email.com");
-
-        AuthData authData = authDAO.createAuth(userData);
-
-//        Positive test case
-        Assertions.assertEquals(authData, service.getAuthData(authData.authToken()));
-//        Negative test case
-        Assertions.assertNotEquals(authData, service.getAuthData("fake auth"));
+    void testResolveDatabaseFailure() {
+        AuthenticationService failing = new AuthenticationService(new AuthDAO() {
+            public void clear() {}
+            public AuthData createAuth(UserData userData) { return null; }
+            public boolean authExists(String authToken) throws DataAccessException {
+                throw new DataAccessException("connection refused");
+            }
+            public AuthData getAuth(String authToken) throws DataAccessException {
+                throw new DataAccessException("connection refused");
+            }
+            public boolean deleteAuth(String authToken) { return false; }
+            public int deleteExpired(int limit) { return 0; }
+        });
+
+//        A database failure isn't the client's fault, so it mustn't look like a bad token
+        Assertions.assertThrows(DataAccessException.class, () -> failing.resolve("some auth"));
     }
-
 }
@@ -1,9 +1,14 @@
 package phase3Tests;
 
 import Service.GameService;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
 import dataAccess.DataAccessException;
 import dataAccess.memory.MemoryGameDAO;
 import handlers.CreateGameRequest;
+import model.GameData;
 import model.GameID;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -33,9 +38,100 @@ public class GameServiceTest {
         Assertions.assertNotNull(gameDAO.getGame(gameID.gameID()));
     }
 
+    @Test
+    void testCreateGameRetriesTakenID() {
+//        Turns away the first ID it's given, as if another game already had it
+        var takenDAO = new MemoryGameDAO() {
+            int attempts = 0;
+
+            @Override
+            public boolean addGame(GameData gameData) {
+                return ++attempts > 1 && super.addGame(gameData);
+            }
+        };
+
+        try {
+            GameID gameID = new GameService(takenDAO).createGame(new CreateGameRequest("testGame"));
+            Assertions.assertEquals(2, takenDAO.attempts);
+            Assertions.assertNotNull(takenDAO.getGame(gameID.gameID()));
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+    }
+
     @Test
     void testCreateGameNull() {
 //        Negative test
         Assertions.assertNull(gameDAO.getGame(1234));
     }
+
+    @Test
+    void testRecordMove() {
+        ChessGame game = new ChessGame();
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        GameData gameData = new GameData(1234, "white", "black", "testGame", game);
+        gameDAO.addGame(gameData);
+
+        try {
+            game.makeMove(move);
+            Assertions.assertTrue(service.recordMove(gameData, move, 0));
+
+            Assertions.assertEquals(ChessGame.TeamColor.BLACK, service.getGame(1234).game().getTeamTurn());
+            Assertions.assertEquals(1, gameDAO.getMoves(1234).size());
+        } catch (DataAccessException | InvalidMoveException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testETag() {
+        GameData gameData = new GameData(1234, "white", null, "testGame", new ChessGame());
+        gameDAO.addGame(gameData);
+
+        try {
+//            The same game always has the same tag, so an unchanged game isn't sent again
+            String etag = GameService.etag(service.getGame(1234));
+            Assertions.assertEquals(etag, GameService.etag(service.getGame(1234)));
+
+            var moved = service.getGame(1234);
+            ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+            moved.game().makeMove(move);
+            Assertions.assertTrue(service.recordMove(moved, move, moved.version()));
+            String movedETag = GameService.etag(service.getGame(1234));
+            Assertions.assertNotEquals(etag, movedETag);
+
+            var joined = service.getGame(1234);
+            Assertions.assertTrue(service.updateGame(
+                    new GameData(1234, "white", "black", "testGame", joined.game()), joined.version()));
+            Assertions.assertNotEquals(movedETag, GameService.etag(service.getGame(1234)));
+        } catch (DataAccessException | InvalidMoveException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testStaleUpdateRejected() {
+        gameDAO.addGame(new GameData(1234, null, null, "testGame", new ChessGame()));
+
+        try {
+//            Two players read the game at the same version; only the first to save wins
+            var first = service.getGame(1234);
+            var second = service.getGame(1234);
+            Assertions.assertTrue(service.updateGame(
+                    new GameData(1234, "first", null, "testGame", first.game()), first.version()));
+            Assertions.assertFalse(service.updateGame(
+                    new GameData(1234, "second", null, "testGame", second.game()), second.version()));
+
+            ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+            second.game().makeMove(move);
+            Assertions.assertFalse(service.recordMove(second, move, second.version()));
+
+            var current = service.getGame(1234);
+            Assertions.assertEquals("first", current.whiteUsername());
+            Assertions.assertEquals(1, current.version());
+            Assertions.assertTrue(gameDAO.getMoves(1234).isEmpty());
+        } catch (DataAccessException | InvalidMoveException e) {
+            Assertions.fail();
+        }
+    }
 }
@@ -13,6 +13,11 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 public class JoinServiceTest {
     static final MemoryGameDAO gameDAO = new MemoryGameDAO();
     static final JoinService service = new JoinService(gameDAO);
@@ -60,4 +65,35 @@ public class JoinServiceTest {
 //        Test username already taken
         Assertions.assertThrows(ResponseException.class, () -> service.joinGame(req, authData));
     }
+
+    @Test
+    void testConcurrentJoinsTakeSeatOnce() throws Exception {
+        GameID gameID = gameService.createGame(new CreateGameRequest("testGame"));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+//            Everyone races for WHITE; only one of them can get it
+            ArrayList<Future<Boolean>> joins = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                AuthData authData = new AuthData("user" + i, "token" + i);
+                joins.add(executor.submit(() -> {
+                    try {
+                        service.joinGame(new JoinGameRequest("WHITE", gameID.gameID()), authData);
+                        return true;
+                    } catch (ResponseException e) {
+                        return false;
+                    }
+                }));
+            }
+            int joined = 0;
+            for (var join : joins) {
+                if (join.get()) {
+                    joined++;
+                }
+            }
+            Assertions.assertEquals(1, joined);
+            Assertions.assertEquals(1, gameDAO.getGame(gameID.gameID()).version());
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -5,6 +5,7 @@ import Service.ListService;
 import dataAccess.DataAccessException;
 import dataAccess.memory.MemoryGameDAO;
 import handlers.CreateGameRequest;
+import model.GameQuery;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,7 +24,7 @@ public class ListServiceTest {
     void testGetGamesEmpty() {
 //        Test that there are currently no games
         try {
-            Assertions.assertTrue(service.getGames().isEmpty());
+            Assertions.assertTrue(service.getGames(GameQuery.all()).games().isEmpty());
         } catch (DataAccessException e) {
             Assertions.fail();
         }
@@ -41,7 +42,39 @@ public class ListServiceTest {
 
 //        Test that there are the correct number of games
         try {
-            Assertions.assertEquals(3, service.getGames().size());
+            var page = service.getGames(GameQuery.all());
+            Assertions.assertEquals(3, page.games().size());
+            Assertions.assertNull(page.next());
+        } catch (DataAccessException e) {
+            Assertions.fail();
+        }
+    }
+
+    @Test
+    void testGetGamesPaged() {
+        try {
+            for (int i = 0; i < 5; i++) {
+                gameService.createGame(new CreateGameRequest("game" + i));
+            }
+
+//            Follow the cursor until there are no more pages
+            int listed = 0;
+            int pages = 0;
+            GameQuery query = GameQuery.page(2);
+            while (true) {
+                var page = service.getGames(query);
+                listed += page.games().size();
+                pages++;
+                if (page.next() == null) {
+                    break;
+                }
+                query = query.withAfter(page.next());
+            }
+            Assertions.assertEquals(5, listed);
+            Assertions.assertEquals(3, pages);
+
+//            A page that holds every game is the last one
+            Assertions.assertNull(service.getGames(GameQuery.page(5)).next());
         } catch (DataAccessException e) {
             Assertions.fail();
         }
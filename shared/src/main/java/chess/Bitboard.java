@@ -0,0 +1,122 @@
+package chess;
+
+/**
+ * Helpers for working with 64-bit bitboards.
+ * <p>
+ * Squares are numbered 0-63 starting at a1 (row 1, column 1) and moving
+ * across each row, so a square's bit is {@code 1L << square} and
+ * {@code square = (row - 1) * 8 + (column - 1)}.
+ */
+public final class Bitboard {
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final long EMPTY = 0L;
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Bitboard() {
+    }
+
+    /**
+     * @return the square index for a 1-indexed row and column
+     */
+    public static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    /**
+     * @return the square index of a position
+     */
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * @return the 1-indexed row of a square
+     */
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @return the 1-indexed column of a square
+     */
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    /**
+     * @return the position of a square
+     */
+    public static ChessPosition position(int square) {
+        return ChessPosition.of(row(square), column(square));
+    }
+
+    /**
+     * @return whether a 1-indexed row and column is on the board
+     */
+    public static boolean onBoard(int row, int col) {
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+
+    /**
+     * @return a bitboard with only the given square set
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * @return the index of the lowest set square (undefined for an empty bitboard)
+     */
+    public static int first(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    /**
+     * @return the bitboard with its lowest set square cleared
+     */
+    public static long popFirst(long bitboard) {
+        return bitboard & (bitboard - 1);
+    }
+
+    /**
+     * @return 0 for white, 1 for black
+     */
+    public static int colorIndex(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? WHITE : BLACK;
+    }
+
+    /**
+     * @return the team for a color index
+     */
+    public static ChessGame.TeamColor color(int colorIndex) {
+        return colorIndex == WHITE ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    /**
+     * @return the piece bitboard index (0-11) for a colored piece type
+     */
+    public static int pieceIndex(int colorIndex, ChessPiece.PieceType type) {
+        return colorIndex * 6 + type.ordinal();
+    }
+
+    /**
+     * @return the piece bitboard index (0-11) for a piece
+     */
+    public static int pieceIndex(ChessPiece piece) {
+        return pieceIndex(colorIndex(piece.getTeamColor()), piece.getPieceType());
+    }
+
+    /**
+     * @return the piece type stored at a piece bitboard index
+     */
+    public static ChessPiece.PieceType type(int pieceIndex) {
+        return TYPES[pieceIndex % 6];
+    }
+}
@@ -5,11 +5,20 @@ import java.util.Arrays;
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * Pieces are stored both in an 8x8 array (the form that gets serialized) and in
+ * twelve piece bitboards plus one occupancy mask per team, which move generation
+ * works on directly. A Zobrist key for the pieces is kept up to date alongside
+ * them. The bitboards and key are transient, so they are rebuilt from the array
+ * the first time they are needed after deserialization.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessBoard {
     private ChessPiece[][] board;
+    private transient long[] pieces;
+    private transient long[] teams;
+    private transient long key;
 
     public ChessBoard() {
         this.board = new ChessPiece[8][8];
@@ -27,11 +36,16 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        this.board[position.getRow() - 1][position.getColumn() - 1] = piece;
+        setPiece(Bitboard.square(position), piece);
     }
 
+    /**
+     * Removes whatever piece is at a position
+     *
+     * @param position where to remove the piece from
+     */
     public void removePiece(ChessPosition position) {
-        this.board[position.getRow() - 1][position.getColumn() - 1] = null;
+        setPiece(Bitboard.square(position), null);
     }
 
     /**
@@ -45,6 +59,120 @@ public class ChessBoard {
         return this.board[position.getRow() - 1][position.getColumn() - 1];
     }
 
+    /**
+     * Gets a chess piece on the chessboard by square index
+     *
+     * @param square the square (0-63, see {@link Bitboard}) to get the piece from
+     * @return Either the piece on the square, or null if it is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return this.board[square >>> 3][square & 7];
+    }
+
+    /**
+     * Puts a piece on a square, replacing anything already there
+     *
+     * @param square the square (0-63) to set
+     * @param piece  the piece to place, or null to empty the square
+     */
+    public void setPiece(int square, ChessPiece piece) {
+        syncBitboards();
+        long bit = Bitboard.bit(square);
+        ChessPiece old = this.board[square >>> 3][square & 7];
+        if (old != null) {
+            int index = Bitboard.pieceIndex(old);
+            this.pieces[index] &= ~bit;
+            this.teams[Bitboard.colorIndex(old.getTeamColor())] &= ~bit;
+            this.key ^= Zobrist.piece(index, square);
+        }
+        this.board[square >>> 3][square & 7] = piece;
+        if (piece != null) {
+            int index = Bitboard.pieceIndex(piece);
+            this.pieces[index] |= bit;
+            this.teams[Bitboard.colorIndex(piece.getTeamColor())] |= bit;
+            this.key ^= Zobrist.piece(index, square);
+        }
+    }
+
+    /**
+     * @return bitboard of the squares holding the given team's pieces of a type
+     */
+    public long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        syncBitboards();
+        return this.pieces[Bitboard.pieceIndex(Bitboard.colorIndex(color), type)];
+    }
+
+    /**
+     * @return bitboard of the squares holding the pieces at a piece index (see {@link Bitboard#pieceIndex})
+     */
+    public long pieces(int pieceIndex) {
+        syncBitboards();
+        return this.pieces[pieceIndex];
+    }
+
+    /**
+     * @return bitboard of the squares occupied by the given team
+     */
+    public long occupancy(ChessGame.TeamColor color) {
+        syncBitboards();
+        return this.teams[Bitboard.colorIndex(color)];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long occupancy() {
+        syncBitboards();
+        return this.teams[Bitboard.WHITE] | this.teams[Bitboard.BLACK];
+    }
+
+    /**
+     * @return the Zobrist key of the pieces on the board (see {@link Zobrist})
+     */
+    public long getZobristKey() {
+        syncBitboards();
+        return this.key;
+    }
+
+    /**
+     * Finds a team's king. The king bitboard is kept up to date on every change to
+     * the board, so this is a single bit scan rather than a search
+     *
+     * @return the square (0-63) of the team's king, or -1 if it has none on the board
+     */
+    public int kingSquare(ChessGame.TeamColor color) {
+        if (color == ChessGame.TeamColor.NONE) {
+            return -1;
+        }
+        long king = pieces(color, ChessPiece.PieceType.KING);
+        return king == Bitboard.EMPTY ? -1 : Bitboard.first(king);
+    }
+
+    /**
+     * Builds the bitboards from the piece array if they haven't been yet
+     * (a fresh board, or one that was just deserialized)
+     */
+    private void syncBitboards() {
+        if (this.pieces != null) {
+            return;
+        }
+        this.pieces = new long[12];
+        this.teams = new long[2];
+        this.key = 0L;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = this.board[square >>> 3][square & 7];
+            if (piece != null) {
+                // Deserialized pieces are separate objects, swap them for the shared ones
+                piece = ChessPiece.of(piece.getTeamColor(), piece.getPieceType());
+                this.board[square >>> 3][square & 7] = piece;
+                int index = Bitboard.pieceIndex(piece);
+                this.pieces[index] |= Bitboard.bit(square);
+                this.teams[Bitboard.colorIndex(piece.getTeamColor())] |= Bitboard.bit(square);
+                this.key ^= Zobrist.piece(index, square);
+            }
+        }
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
@@ -52,31 +180,50 @@ public class ChessBoard {
     public void resetBoard() {
 //        Clear Board
         this.board = new ChessPiece[8][8];
+        this.pieces = null;
 
 //        Put new pieces on the board
 //        Pawns
         for (int i=1; i <=8; i++) {
-            this.addPiece(new ChessPosition(2, i), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
-            this.addPiece(new ChessPosition(7, i), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            this.addPiece(ChessPosition.of(2, i), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            this.addPiece(ChessPosition.of(7, i), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
         }
 //        All other pieces
-        this.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        this.addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        this.addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        this.addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        this.addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        this.addPiece(new ChessPosition(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        this.addPiece(new ChessPosition(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
-        this.addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
-
-        this.addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        this.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        this.addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        this.addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        this.addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        this.addPiece(new ChessPosition(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        this.addPiece(new ChessPosition(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
-        this.addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        this.addPiece(ChessPosition.of(1, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        this.addPiece(ChessPosition.of(1, 8), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        this.addPiece(ChessPosition.of(1, 2), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        this.addPiece(ChessPosition.of(1, 7), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        this.addPiece(ChessPosition.of(1, 3), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        this.addPiece(ChessPosition.of(1, 6), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        this.addPiece(ChessPosition.of(1, 4), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        this.addPiece(ChessPosition.of(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+
+        this.addPiece(ChessPosition.of(8, 1), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        this.addPiece(ChessPosition.of(8, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        this.addPiece(ChessPosition.of(8, 2), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        this.addPiece(ChessPosition.of(8, 7), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        this.addPiece(ChessPosition.of(8, 3), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        this.addPiece(ChessPosition.of(8, 6), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        this.addPiece(ChessPosition.of(8, 4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        this.addPiece(ChessPosition.of(8, 5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+    }
+
+    /**
+     * @return the piece placement field of this board in FEN (see {@link Fen})
+     */
+    public String toFen() {
+        return Fen.placement(this);
+    }
+
+    /**
+     * Sets up a board from a FEN string
+     *
+     * @param fen a full FEN string, or just its piece placement field
+     * @return the board it describes
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public static ChessBoard fromFen(String fen) {
+        return Fen.parseBoard(fen);
     }
 
     @Override
@@ -91,11 +238,13 @@ public class ChessBoard {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ChessBoard that = (ChessBoard) o;
-        return Arrays.deepEquals(board, that.board);
+        // Different keys always mean different boards; equal keys still need the bitboards compared
+        return getZobristKey() == that.getZobristKey()
+                && Arrays.equals(this.pieces, that.pieces);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return Long.hashCode(getZobristKey());
     }
 }
@@ -12,6 +12,7 @@ import java.util.HashSet;
 public class ChessGame {
     private TeamColor turn;
     private ChessBoard board;
+    private transient MoveHistory history;
 
     public ChessGame() {
         // White starts
@@ -40,6 +41,37 @@ public class ChessGame {
         this.turn = team;
     }
 
+    /**
+     * Gets a 64-bit Zobrist hash of the current position: the pieces on the board
+     * and whose turn it is. The board keeps its part up to date as pieces move, so
+     * this is cheap to call after every move and suitable as a cache key.
+     *
+     * @return the position's Zobrist key
+     */
+    public long getZobristKey() {
+        return this.board.getZobristKey() ^ Zobrist.side(this.turn);
+    }
+
+    /**
+     * Gets the position as a FEN string (see {@link Fen}): the board and whose turn it is
+     *
+     * @return the FEN for the current position
+     */
+    public String toFen() {
+        return Fen.format(this);
+    }
+
+    /**
+     * Sets up a game from a FEN string
+     *
+     * @param fen the FEN for the position to start from
+     * @return a game at that position
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.parse(fen);
+    }
+
     /**
      * Enum identifying the 2 possible teams in a chess game
      */
@@ -57,34 +89,23 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        Collection<ChessMove> allMoves = new HashSet<>(0);
         // Verify that there is a piece at this position
-        if (this.board.getPiece(startPosition) == null) {
-            return allMoves;
-        } else {
-            // Once we have verified there is a piece, we can get a Collection of the valid ChessMoves
-            allMoves = this.board.getPiece(startPosition).pieceMoves(this.board, startPosition);
-            Collection<ChessMove> onlyValid = new HashSet<>(0);
-            for (var move : allMoves) {
-                // Find the starting and ending pieces
-                ChessPiece piece = this.board.getPiece(move.getStartPosition());
-                ChessPiece targetPiece = this.board.getPiece(move.getEndPosition());
-
-                // Try making the move
-                this.board.addPiece(move.getEndPosition(), piece);
-                this.board.removePiece(move.getStartPosition());
-
-                // Check if the king will be in check; if not, adds to valid moves
-                if (!this.isInCheck(piece.getTeamColor())) {
-                    onlyValid.add(move);
-                }
-
-                // Now resets the board
-                this.board.addPiece(move.getStartPosition(), piece);
-                this.board.addPiece(move.getEndPosition(), targetPiece);
-            }
-            return onlyValid;
+        ChessPiece piece = this.board.getPiece(startPosition);
+        if (piece == null) {
+            return new HashSet<>(0);
         }
+        // Pins and checks are worked out once, then the piece's moves are filtered against them
+        return new LegalMoveGenerator(this.board, piece.getTeamColor()).pieceMoves(startPosition);
+    }
+
+    /**
+     * Adds every legal packed move (see {@link Move}) for the team whose turn it is
+     * to a list, which can be reused between calls to avoid allocating
+     *
+     * @param moves the list to add to
+     */
+    public void legalMoves(MoveList moves) {
+        new LegalMoveGenerator(this.board, this.turn).generate(moves);
     }
 
     /**
@@ -98,9 +119,11 @@ public class ChessGame {
         TeamColor turn = getTeamTurn();
         // Get the actual piece trying to move
         ChessPiece piece = this.board.getPiece(move.getStartPosition());
+        if (piece == null) {
+            throw new InvalidMoveException("No piece at that position");
+        }
         // Get the color for the piece trying to move
         TeamColor color = piece.getTeamColor();
-        Collection<ChessMove> possibleMoves = piece.pieceMoves(this.board, move.getStartPosition());
         if (color != turn) {
             // Check that the color of the piece moving is the same as the team's turn
             throw new InvalidMoveException("Not this team's turn to move");
@@ -109,47 +132,104 @@ public class ChessGame {
                 // Ensure that the move doesn't land on a piece from the same team
                 throw new InvalidMoveException("Can't move to a position with a piece of the same team");
             }
-        } if (!possibleMoves.contains(move)){
+        }
+        int encoded = Move.of(move);
+        if (!isPossible(piece, encoded)) {
             // Ensures that the move is actually a possible move
             throw new InvalidMoveException("Not a possible move for that piece");
-        } else {
-            // Now that the move has been verified, it is made!
-            ChessPiece newPiece = piece;
-            if (move.getPromotionPiece() != null) {
-                newPiece = new ChessPiece(color, move.getPromotionPiece());
-            }
-            ChessPiece takenPiece = this.board.getPiece(move.getEndPosition());
-            this.board.addPiece(move.getEndPosition(), newPiece);
-            this.board.removePiece(move.getStartPosition());
+        }
 
-            // Ensures that this move doesn't leave the king in check
-            if (this.isInCheck(color)) {
-                this.board.addPiece(move.getEndPosition(), takenPiece);
-                this.board.addPiece(move.getStartPosition(), piece);
-                throw new InvalidMoveException("This move will leave the king in check");
-            }
+        // Now that the move has been verified, it is made!
+        doMove(encoded);
 
-            // Set the new team's turn
-            if (this.getTeamTurn() == TeamColor.WHITE) {
-                this.setTeamTurn(TeamColor.BLACK);
-            } else {
-                this.setTeamTurn(TeamColor.WHITE);
-            }
+        // Ensures that this move doesn't leave the king in check
+        if (this.isInCheck(color)) {
+            undoMove();
+            throw new InvalidMoveException("This move will leave the king in check");
+        }
 
-            if (isInCheckmate(getTeamTurn())) {
-                setTeamTurn(TeamColor.NONE);
-                throw new InvalidMoveException("Checkmate!");
-            }
-            if (isInStalemate(getTeamTurn())) {
-                setTeamTurn(TeamColor.NONE);
-                throw new InvalidMoveException("Stalemate!");
-            }
-            if (isInCheck(getTeamTurn())) {
-                throw new InvalidMoveException("Check!");
-            }
+        if (isInCheckmate(getTeamTurn())) {
+            setTeamTurn(TeamColor.NONE);
+            throw new InvalidMoveException("Checkmate!");
+        }
+        if (isInStalemate(getTeamTurn())) {
+            setTeamTurn(TeamColor.NONE);
+            throw new InvalidMoveException("Stalemate!");
+        }
+        if (isInCheck(getTeamTurn())) {
+            throw new InvalidMoveException("Check!");
         }
     }
 
+    /**
+     * @return whether a packed move follows how the piece on its start square moves,
+     * promoting exactly when a pawn reaches the last row
+     */
+    private boolean isPossible(ChessPiece piece, int move) {
+        int to = Move.to(move);
+        if ((MoveGenerator.targets(this.board, Move.from(move)) & Bitboard.bit(to)) == 0) {
+            return false;
+        }
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        boolean promotes = piece.getPieceType() == ChessPiece.PieceType.PAWN
+                && (Bitboard.bit(to) & (Bitboard.RANK_1 | Bitboard.RANK_8)) != 0;
+        if (!promotes) {
+            return promotion == null;
+        }
+        return promotion != null && promotion != ChessPiece.PieceType.KING && promotion != ChessPiece.PieceType.PAWN;
+    }
+
+    /**
+     * Plays a packed move (see {@link Move}) on the board and hands the turn to the
+     * other team, without checking that it is legal or allocating anything. Every
+     * call pushes onto an undo stack, so it can be taken back with {@link #undoMove()}.
+     * Meant for code that walks many positions, such as searches and replays, and
+     * for moves that already came from a legal move generator.
+     *
+     * @param move the packed move to play
+     * @throws IllegalArgumentException if there is no piece on the move's start square
+     */
+    public void doMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = this.board.getPiece(from);
+        if (piece == null) {
+            throw new IllegalArgumentException("No piece to move at square " + from);
+        }
+        history().push(move, piece, this.board.getPiece(to), this.turn);
+
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        this.board.setPiece(from, null);
+        this.board.setPiece(to, promotion == null ? piece : ChessPiece.of(piece.getTeamColor(), promotion));
+        this.turn = opponent(piece.getTeamColor());
+    }
+
+    /**
+     * Takes back the last move played with {@link #doMove(int)} or {@link #makeMove(ChessMove)},
+     * restoring the board, the captured piece and whose turn it was
+     *
+     * @throws IllegalStateException if there are no moves to take back
+     */
+    public void undoMove() {
+        MoveHistory history = history();
+        if (history.size() == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        int move = history.move();
+        this.board.setPiece(Move.to(move), history.captured());
+        this.board.setPiece(Move.from(move), history.moved());
+        this.turn = history.turn();
+        history.pop();
+    }
+
+    private MoveHistory history() {
+        // Transient, so it's missing after deserialization until the first move
+        if (this.history == null) {
+            this.history = new MoveHistory();
+        }
+        return this.history;
+    }
+
     /**
      * Determines if the given team is in check
      *
@@ -157,48 +237,19 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-
-        ChessPiece.PieceType[] types = {ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, null};
-        ChessPiece piece;
-        ChessPosition kingPosition = null;
-        ChessPosition currPosition;
-        // First we need to find the king...
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                currPosition = new ChessPosition(row, col);
-                if (this.board.getPiece(currPosition) != null) {
-                    piece = this.board.getPiece(currPosition);
-                    if (piece.getTeamColor() == teamColor && piece.getPieceType() == ChessPiece.PieceType.KING) {
-                        // Found the king! Saving its position...
-                        kingPosition = currPosition;
-                        break;
-                    }
-                }
-            }
+        // Look outward from the king for any enemy piece that can reach it
+        int kingSquare = this.board.kingSquare(teamColor);
+        if (kingSquare < 0) {
+            return false;
         }
-        // Now we check the moves for all other pieces
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                currPosition = new ChessPosition(row, col);
-                // Clearly null pieces can't have any valid moves
-                if (this.board.getPiece(currPosition) != null) {
+        return MoveGenerator.isAttacked(this.board, kingSquare, opponent(teamColor));
+    }
 
-                    piece = this.board.getPiece(currPosition);
-                    // Also don't care if the piece is the same color, since it can't attack its own king
-                    if (piece.getTeamColor() != teamColor) {
-                        // Check whether this piece has a valid move from its position to the king's position
-                        for (var type : types) {
-                            if (piece.pieceMoves(this.board, currPosition).contains(new ChessMove(currPosition, kingPosition, type))) {
-                                // All we need to find is one piece to know the king is in check...
-                                return true;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        // Looks like nothing was found, king is safe!
-        return false;
+    /**
+     * @return the team playing against the given team
+     */
+    private static TeamColor opponent(TeamColor teamColor) {
+        return teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
     /**
@@ -213,27 +264,8 @@ public class ChessGame {
             return false;
         }
 
-        // Iterate through all possible moves, determine if they leave the king in check
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                // Initialize the starting position
-                ChessPosition position = new ChessPosition(row, col);
-
-                // Ensure it's not an empty position
-                if (this.board.getPiece(position) != null) {
-                    // Ensure the piece is on the team whose turn it is
-                    if (this.board.getPiece(position).getTeamColor() == teamColor) {
-                        // If the valid moves isn't empty, then there are possible moves (not checkmate)
-                        if (!this.validMoves(position).isEmpty()) {
-                            return false;
-                        }
-                    }
-                }
-            }
-        }
-
-        // If none had valid moves that wouldn't leave the king in check, then game over
-        return true;
+        // If no piece has a move that gets the king out of check, then game over
+        return !new LegalMoveGenerator(this.board, teamColor).hasLegalMove();
     }
 
     /**
@@ -244,31 +276,12 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        ChessPosition myPosition;
-        // Check that it is this team's turn
-        if (this.getTeamTurn() == teamColor) {
-            // Iterate through each position on the board
-            for (int row = 1; row <= 8; row++) {
-                for (int col = 1; col <= 8; col++) {
-                    myPosition = new ChessPosition(row, col);
-                    // Ensure not an empty spot
-                    if (this.board.getPiece(myPosition) != null) {
-                        // Ensure the piece is the right color
-                        if (this.board.getPiece(myPosition).getTeamColor() == teamColor) {
-                            // If there are any valid moves, it's not stalemate
-                            if (!this.validMoves(myPosition).isEmpty()) {
-                                return false;
-                            }
-                        }
-                    }
-                }
-            }
-            // You've gotten all the way through? Well, it must be stalemate.
-            return true;
-        } else {
-            // It's not our turn, so it can't possibly be stalemate
+        // It's not our turn, so it can't possibly be stalemate
+        if (this.getTeamTurn() != teamColor) {
             return false;
         }
+        // If there are any valid moves, it's not stalemate
+        return !new LegalMoveGenerator(this.board, teamColor).hasLegalMove();
     }
 
     /**
@@ -278,6 +291,10 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        // Moves made on the old board can't be undone on this one
+        if (this.history != null) {
+            this.history.clear();
+        }
     }
 
     /**
@@ -0,0 +1,138 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation (FEN), a one-line text
+ * form of a position such as the starting one:
+ * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1}.
+ * <p>
+ * The fields are the piece placement (row 8 first, uppercase for white), the
+ * team to move, castling rights, the en passant square, the halfmove clock and
+ * the move number. The game doesn't support castling or en passant or keep move
+ * counts, so those are always written as {@code - - 0 1} and ignored when read.
+ * A game that has ended (turn {@link ChessGame.TeamColor#NONE}) is written with
+ * {@code -} as the team to move, which standard FEN doesn't have.
+ */
+public final class Fen {
+    /**
+     * The FEN for the position {@link ChessBoard#resetBoard()} sets up
+     */
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    private static final String PIECE_CHARS = "kqbnrp";
+
+    private Fen() {
+    }
+
+    /**
+     * @return the piece placement field for a board
+     */
+    public static String placement(ChessBoard board) {
+        StringBuilder fen = new StringBuilder(64);
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(Bitboard.square(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char c = PIECE_CHARS.charAt(piece.getPieceType().ordinal());
+                fen.append(piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c);
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+        return fen.toString();
+    }
+
+    /**
+     * @return the full FEN string for a game
+     */
+    public static String format(ChessGame game) {
+        String turn = switch (game.getTeamTurn()) {
+            case WHITE -> "w";
+            case BLACK -> "b";
+            case NONE -> "-";
+        };
+        return placement(game.getBoard()) + " " + turn + " - - 0 1";
+    }
+
+    /**
+     * Sets up a board from a FEN string
+     *
+     * @param fen a full FEN string, or just its piece placement field
+     * @return the board it describes
+     * @throws IllegalArgumentException if the placement isn't 8 rows of 8 squares
+     */
+    public static ChessBoard parseBoard(String fen) {
+        String placement = fen.strip().split("\\s+")[0];
+        String[] rows = placement.split("/", -1);
+        if (rows.length != 8) {
+            throw new IllegalArgumentException("FEN needs 8 rows: " + fen);
+        }
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < 8; i++) {
+            int row = 8 - i;
+            int col = 1;
+            for (char c : rows[i].toCharArray()) {
+                if (c >= '1' && c <= '8') {
+                    col += c - '0';
+                    continue;
+                }
+                int type = PIECE_CHARS.indexOf(Character.toLowerCase(c));
+                if (type < 0) {
+                    throw new IllegalArgumentException("Unknown piece '" + c + "' in FEN: " + fen);
+                }
+                if (col > 8) {
+                    throw new IllegalArgumentException("FEN row " + row + " has more than 8 squares: " + fen);
+                }
+                var color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                board.setPiece(Bitboard.square(row, col), ChessPiece.of(color, ChessPiece.PieceType.values()[type]));
+                col++;
+            }
+            if (col != 9) {
+                throw new IllegalArgumentException("FEN row " + row + " doesn't have 8 squares: " + fen);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Sets up a game from a FEN string
+     *
+     * @param fen a FEN string; if the team to move is missing it is white's turn
+     * @return the game it describes
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public static ChessGame parse(String fen) {
+        ChessGame game = new ChessGame();
+        game.setBoard(parseBoard(fen));
+        game.setTeamTurn(parseTurn(fen));
+        return game;
+    }
+
+    /**
+     * @return the team to move from the second field of a FEN string, white if it is missing
+     * @throws IllegalArgumentException if the field isn't w, b or -
+     */
+    public static ChessGame.TeamColor parseTurn(String fen) {
+        String[] fields = fen.strip().split("\\s+");
+        if (fields.length < 2) {
+            return ChessGame.TeamColor.WHITE;
+        }
+        return switch (fields[1]) {
+            case "w" -> ChessGame.TeamColor.WHITE;
+            case "b" -> ChessGame.TeamColor.BLACK;
+            case "-" -> ChessGame.TeamColor.NONE;
+            default -> throw new IllegalArgumentException("Unknown team to move '" + fields[1] + "' in FEN: " + fen);
+        };
+    }
+}
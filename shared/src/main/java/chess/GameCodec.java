@@ -0,0 +1,76 @@
+package chess;
+
+/**
+ * A compact, versioned binary form of a {@link ChessGame} for storage.
+ * <p>
+ * Version 1 is 35 bytes: the version, the team to move (0 white, 1 black,
+ * 2 nobody because the game is over), a byte reserved for castling and en
+ * passant rights (always 0 until the game tracks them), then the 64 squares
+ * from a1 to h8 packed two to a byte, low nibble first. Each nibble is 0 for an
+ * empty square or the piece's bitboard index plus one (see {@link Bitboard#pieceIndex}).
+ */
+public final class GameCodec {
+    public static final byte VERSION = 1;
+    public static final int LENGTH = 3 + 32;
+
+    private static final ChessGame.TeamColor[] TURNS = ChessGame.TeamColor.values();
+
+    private GameCodec() {
+    }
+
+    /**
+     * @return the encoded form of a game's board and turn
+     */
+    public static byte[] encode(ChessGame game) {
+        byte[] bytes = new byte[LENGTH];
+        bytes[0] = VERSION;
+        bytes[1] = (byte) game.getTeamTurn().ordinal();
+        bytes[2] = 0;
+
+        ChessBoard board = game.getBoard();
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece != null) {
+                int nibble = Bitboard.pieceIndex(piece) + 1;
+                bytes[3 + square / 2] |= (byte) (square % 2 == 0 ? nibble : nibble << 4);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Rebuilds a game from its encoded form
+     *
+     * @param bytes bytes from {@link #encode(ChessGame)}
+     * @return the decoded game
+     * @throws IllegalArgumentException if the bytes aren't a version this codec knows
+     */
+    public static ChessGame decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            throw new IllegalArgumentException("No game state to decode");
+        }
+        if (bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unknown game state version " + bytes[0]);
+        }
+        if (bytes.length != LENGTH || bytes[1] < 0 || bytes[1] >= TURNS.length) {
+            throw new IllegalArgumentException("Corrupt game state");
+        }
+
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            int packed = bytes[3 + square / 2];
+            int nibble = (square % 2 == 0 ? packed : packed >>> 4) & 0xF;
+            if (nibble > 12) {
+                throw new IllegalArgumentException("Corrupt game state");
+            }
+            if (nibble != 0) {
+                int index = nibble - 1;
+                board.setPiece(square, ChessPiece.of(Bitboard.color(index / 6), Bitboard.type(index)));
+            }
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(TURNS[bytes[1]]);
+        return game;
+    }
+}
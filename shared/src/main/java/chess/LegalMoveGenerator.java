@@ -0,0 +1,200 @@
+package chess;
+
+import java.util.Collection;
+
+/**
+ * Generates the legal moves for one team on a board.
+ * <p>
+ * The king's position, the pieces giving check and the pieces pinned against the
+ * king are worked out once when the generator is created. Moves for other pieces
+ * are then filtered with bitboard masks rather than by trying each move on the
+ * board, and king moves are kept only if the destination isn't attacked with the
+ * king lifted off the board. The generator reflects the board at the time it was
+ * created, so make a new one after the board changes.
+ */
+public class LegalMoveGenerator {
+    private static final long ALL = ~Bitboard.EMPTY;
+
+    private final ChessBoard board;
+    private final ChessGame.TeamColor color;
+    private final ChessGame.TeamColor enemy;
+    private final int kingSquare;
+    private final long checkers;
+    private final long checkMask;
+    private final long pinned;
+    private final long[] pinRays = new long[64];
+
+    /**
+     * @param board the board to generate moves on
+     * @param color the team to generate moves for
+     */
+    public LegalMoveGenerator(ChessBoard board, ChessGame.TeamColor color) {
+        this.board = board;
+        this.color = color;
+        this.enemy = color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        this.kingSquare = board.kingSquare(color);
+
+        // Without a king nothing can be illegal
+        if (kingSquare < 0) {
+            this.checkers = Bitboard.EMPTY;
+            this.checkMask = ALL;
+            this.pinned = Bitboard.EMPTY;
+            return;
+        }
+
+        long occupied = board.occupancy();
+        this.checkers = MoveGenerator.attackers(board, kingSquare, enemy, occupied);
+        if (checkers == Bitboard.EMPTY) {
+            this.checkMask = ALL;
+        } else if (Bitboard.popFirst(checkers) == Bitboard.EMPTY) {
+            // Single check: capture the checker or step in front of it
+            int checker = Bitboard.first(checkers);
+            this.checkMask = checkers | Attacks.between(kingSquare, checker);
+        } else {
+            // Double check: only the king can move
+            this.checkMask = Bitboard.EMPTY;
+        }
+
+        // Enemy sliders that would see the king if our pieces weren't in the way
+        int enemyIndex = Bitboard.colorIndex(enemy);
+        long enemies = board.occupancy(enemy);
+        long queens = board.pieces(Bitboard.pieceIndex(enemyIndex, ChessPiece.PieceType.QUEEN));
+        long snipers = (Attacks.rook(kingSquare, enemies)
+                & (board.pieces(Bitboard.pieceIndex(enemyIndex, ChessPiece.PieceType.ROOK)) | queens))
+                | (Attacks.bishop(kingSquare, enemies)
+                & (board.pieces(Bitboard.pieceIndex(enemyIndex, ChessPiece.PieceType.BISHOP)) | queens));
+
+        long pins = Bitboard.EMPTY;
+        long own = board.occupancy(color);
+        while (snipers != Bitboard.EMPTY) {
+            int sniper = Bitboard.first(snipers);
+            long between = Attacks.between(kingSquare, sniper);
+            long blockers = between & occupied;
+            // Exactly one piece in the way, and it's ours: it may only move along the ray
+            if (blockers != Bitboard.EMPTY && Bitboard.popFirst(blockers) == Bitboard.EMPTY && (blockers & own) != 0) {
+                pins |= blockers;
+                pinRays[Bitboard.first(blockers)] = between | Bitboard.bit(sniper);
+            }
+            snipers = Bitboard.popFirst(snipers);
+        }
+        this.pinned = pins;
+    }
+
+    /**
+     * @return whether the team's king is attacked
+     */
+    public boolean inCheck() {
+        return checkers != Bitboard.EMPTY;
+    }
+
+    /**
+     * @return bitboard of the squares a piece of this team can legally move to from a square,
+     * or empty if the square doesn't hold one of this team's pieces
+     */
+    public long targets(int square) {
+        ChessPiece piece = board.getPiece(square);
+        if (piece == null || piece.getTeamColor() != color) {
+            return Bitboard.EMPTY;
+        }
+        long targets = MoveGenerator.targets(board, square);
+        if (square == kingSquare) {
+            return kingTargets(targets);
+        }
+        targets &= checkMask;
+        if ((pinned & Bitboard.bit(square)) != 0) {
+            targets &= pinRays[square];
+        }
+        return targets;
+    }
+
+    /**
+     * Calculates the legal moves for the piece at a position
+     *
+     * @param position where the piece is
+     * @return Collection of legal moves, empty if the position doesn't hold one of this team's pieces
+     */
+    public Collection<ChessMove> pieceMoves(ChessPosition position) {
+        MoveList moves = new MoveList();
+        generate(Bitboard.square(position), moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Adds the legal packed moves (see {@link Move}) of the piece on a square to a list
+     *
+     * @param square the square (0-63) the piece is on
+     * @param moves  the list to add to, nothing is added unless the square holds one of this team's pieces
+     */
+    public void generate(int square, MoveList moves) {
+        MoveGenerator.addMoves(board, square, targets(square), moves);
+    }
+
+    /**
+     * Adds every legal packed move for the team to a list
+     *
+     * @param moves the list to add to
+     */
+    public void generate(MoveList moves) {
+        long pieces = board.occupancy(color);
+        while (pieces != Bitboard.EMPTY) {
+            generate(Bitboard.first(pieces), moves);
+            pieces = Bitboard.popFirst(pieces);
+        }
+    }
+
+    /**
+     * Counts the team's legal moves from the target bitboards, without generating them
+     *
+     * @return the number of legal moves, counting each promotion choice separately
+     */
+    public int countMoves() {
+        int count = 0;
+        long pieces = board.occupancy(color);
+        while (pieces != Bitboard.EMPTY) {
+            int square = Bitboard.first(pieces);
+            long targets = targets(square);
+            int moves = Long.bitCount(targets);
+            if (board.getPiece(square).getPieceType() == ChessPiece.PieceType.PAWN) {
+                // Every pawn move onto the last row is one move per promotion piece
+                moves += Long.bitCount(targets & (Bitboard.RANK_1 | Bitboard.RANK_8))
+                        * (MoveGenerator.PROMOTIONS.length - 1);
+            }
+            count += moves;
+            pieces = Bitboard.popFirst(pieces);
+        }
+        return count;
+    }
+
+    /**
+     * @return whether the team has any legal move at all
+     */
+    public boolean hasLegalMove() {
+        long pieces = board.occupancy(color);
+        // The king is the only piece that can answer a double check, so try it first
+        if (kingSquare >= 0 && targets(kingSquare) != Bitboard.EMPTY) {
+            return true;
+        }
+        while (pieces != Bitboard.EMPTY) {
+            int square = Bitboard.first(pieces);
+            if (square != kingSquare && targets(square) != Bitboard.EMPTY) {
+                return true;
+            }
+            pieces = Bitboard.popFirst(pieces);
+        }
+        return false;
+    }
+
+    private long kingTargets(long targets) {
+        // Lift the king off the board so it can't hide behind itself from a slider
+        long occupied = board.occupancy() & ~Bitboard.bit(kingSquare);
+        long legal = Bitboard.EMPTY;
+        while (targets != Bitboard.EMPTY) {
+            int target = Bitboard.first(targets);
+            if (MoveGenerator.attackers(board, target, enemy, occupied) == Bitboard.EMPTY) {
+                legal |= Bitboard.bit(target);
+            }
+            targets = Bitboard.popFirst(targets);
+        }
+        return legal;
+    }
+}
@@ -0,0 +1,113 @@
+package chess;
+
+/**
+ * Packs a chess move into a single int so it can be stored and passed around
+ * without allocating a {@link ChessMove}.
+ * <p>
+ * Bits 0-5 hold the start square and bits 6-11 the end square (0-63, see
+ * {@link Bitboard}). Bits 12-14 hold the promotion piece as its
+ * {@link ChessPiece.PieceType} ordinal plus one, or 0 for no promotion. Those
+ * 15 bits are the move itself; the bits above them are flags the move generator
+ * sets to describe it (such as {@link #CAPTURE}), which don't change which move it is.
+ */
+public final class Move {
+    /**
+     * Never a real move, since the start and end squares are the same
+     */
+    public static final int NONE = 0;
+
+    /**
+     * Flag for a move that lands on an enemy piece
+     */
+    public static final int CAPTURE = 1 << 15;
+    /**
+     * Flag for a pawn moving two rows from its starting row
+     */
+    public static final int DOUBLE_PUSH = 1 << 16;
+
+    private static final int MOVE_MASK = (1 << 15) - 1;
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int PROMOTION_MASK = 0x7;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    /**
+     * @param from      the start square (0-63)
+     * @param to        the end square (0-63)
+     * @param promotion the piece a pawn promotes to, or null
+     * @return the packed move
+     */
+    public static int encode(int from, int to, ChessPiece.PieceType promotion) {
+        return encode(from, to, promotion, 0);
+    }
+
+    /**
+     * @param from      the start square (0-63)
+     * @param to        the end square (0-63)
+     * @param promotion the piece a pawn promotes to, or null
+     * @param flags     any of {@link #CAPTURE} and {@link #DOUBLE_PUSH}
+     * @return the packed move
+     */
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int move = from | (to << TO_SHIFT) | flags;
+        if (promotion != null) {
+            move |= (promotion.ordinal() + 1) << PROMOTION_SHIFT;
+        }
+        return move;
+    }
+
+    /**
+     * @return the packed form of a move, without any flags
+     */
+    public static int of(ChessMove move) {
+        return encode(Bitboard.square(move.getStartPosition()), Bitboard.square(move.getEndPosition()),
+                move.getPromotionPiece());
+    }
+
+    /**
+     * @return the start square of a packed move
+     */
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * @return the end square of a packed move
+     */
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * @return the piece a packed move promotes to, or null if it isn't a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotion = (move >>> PROMOTION_SHIFT) & PROMOTION_MASK;
+        return promotion == 0 ? null : TYPES[promotion - 1];
+    }
+
+    /**
+     * @return whether a packed move captures a piece
+     */
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * @return whether two packed moves are the same move, ignoring their flags
+     */
+    public static boolean same(int move, int other) {
+        return ((move ^ other) & MOVE_MASK) == 0;
+    }
+
+    /**
+     * @return a packed move as a {@link ChessMove}
+     */
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(Bitboard.position(from(move)), Bitboard.position(to(move)), promotion(move));
+    }
+}
@@ -0,0 +1,142 @@
+package chess;
+
+import java.util.Collection;
+
+/**
+ * Generates chess moves from a board's bitboards using the tables in {@link Attacks}.
+ * <p>
+ * Moves are pseudo-legal: they follow how each piece moves but do not take into
+ * account whether they leave the king in danger.
+ */
+public final class MoveGenerator {
+    static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP};
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Calculates all the positions the piece at a position can move to
+     *
+     * @param board    the board to generate moves on
+     * @param position where the piece is
+     * @return Collection of moves, empty if there is no piece at the position
+     */
+    public static Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition position) {
+        MoveList moves = new MoveList();
+        generate(board, Bitboard.square(position), moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Adds the packed moves (see {@link Move}) of the piece on a square to a list
+     *
+     * @param board  the board to generate moves on
+     * @param square the square (0-63) the piece is on
+     * @param moves  the list to add to, nothing is added if the square is empty
+     */
+    public static void generate(ChessBoard board, int square, MoveList moves) {
+        addMoves(board, square, targets(board, square), moves);
+    }
+
+    /**
+     * @return bitboard of the squares the piece on a square can move to, or empty if the square is empty
+     */
+    public static long targets(ChessBoard board, int square) {
+        ChessPiece piece = board.getPiece(square);
+        if (piece == null) {
+            return Bitboard.EMPTY;
+        }
+        int color = Bitboard.colorIndex(piece.getTeamColor());
+        long own = board.occupancy(piece.getTeamColor());
+        long occupied = board.occupancy();
+
+        return switch (piece.getPieceType()) {
+            case KING -> Attacks.king(square) & ~own;
+            case QUEEN -> Attacks.queen(square, occupied) & ~own;
+            case BISHOP -> Attacks.bishop(square, occupied) & ~own;
+            case KNIGHT -> Attacks.knight(square) & ~own;
+            case ROOK -> Attacks.rook(square, occupied) & ~own;
+            case PAWN -> pawnTargets(color, square, occupied, occupied & ~own);
+        };
+    }
+
+    /**
+     * Finds the pieces of a team that attack a square by looking outward from the
+     * square along rook and bishop rays and knight, king and pawn offsets
+     *
+     * @param board    the board to look at
+     * @param square   the square being attacked
+     * @param byColor  the attacking team
+     * @param occupied the occupancy to slide through, normally {@link ChessBoard#occupancy()}
+     * @return bitboard of the attacking pieces
+     */
+    public static long attackers(ChessBoard board, int square, ChessGame.TeamColor byColor, long occupied) {
+        int color = Bitboard.colorIndex(byColor);
+        long queens = board.pieces(Bitboard.pieceIndex(color, ChessPiece.PieceType.QUEEN));
+        long rooks = board.pieces(Bitboard.pieceIndex(color, ChessPiece.PieceType.ROOK)) | queens;
+        long bishops = board.pieces(Bitboard.pieceIndex(color, ChessPiece.PieceType.BISHOP)) | queens;
+
+        return (Attacks.rook(square, occupied) & rooks)
+                | (Attacks.bishop(square, occupied) & bishops)
+                | (Attacks.knight(square) & board.pieces(Bitboard.pieceIndex(color, ChessPiece.PieceType.KNIGHT)))
+                | (Attacks.king(square) & board.pieces(Bitboard.pieceIndex(color, ChessPiece.PieceType.KING)))
+                // A pawn attacks this square from wherever an opposing pawn here would attack
+                | (Attacks.pawn(color ^ 1, square) & board.pieces(Bitboard.pieceIndex(color, ChessPiece.PieceType.PAWN)));
+    }
+
+    /**
+     * @return whether any piece of the given team attacks a square
+     */
+    public static boolean isAttacked(ChessBoard board, int square, ChessGame.TeamColor byColor) {
+        return attackers(board, square, byColor, board.occupancy()) != Bitboard.EMPTY;
+    }
+
+    private static long pawnTargets(int color, int square, long occupied, long enemies) {
+        long bit = Bitboard.bit(square);
+        long captures = Attacks.pawn(color, square) & enemies;
+        long single;
+        long doubled = Bitboard.EMPTY;
+        if (color == Bitboard.WHITE) {
+            single = (bit << 8) & ~occupied;
+            if (Bitboard.row(square) == 2) {
+                doubled = (single << 8) & ~occupied;
+            }
+        } else {
+            single = (bit >>> 8) & ~occupied;
+            if (Bitboard.row(square) == 7) {
+                doubled = (single >>> 8) & ~occupied;
+            }
+        }
+        return single | doubled | captures;
+    }
+
+    /**
+     * Adds a packed move from a square to each target, expanding pawn moves onto the
+     * last row into each promotion and flagging captures and double pawn pushes
+     */
+    static void addMoves(ChessBoard board, int from, long targets, MoveList moves) {
+        if (targets == Bitboard.EMPTY) {
+            return;
+        }
+        ChessPiece piece = board.getPiece(from);
+        boolean pawn = piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        boolean promotes = pawn && (targets & (Bitboard.RANK_1 | Bitboard.RANK_8)) != 0;
+        long enemies = board.occupancy() & ~board.occupancy(piece.getTeamColor());
+        while (targets != 0) {
+            int to = Bitboard.first(targets);
+            int flags = (enemies & Bitboard.bit(to)) != 0 ? Move.CAPTURE : 0;
+            if (pawn && Math.abs(to - from) == 16) {
+                flags |= Move.DOUBLE_PUSH;
+            }
+            if (promotes) {
+                for (var type : PROMOTIONS) {
+                    moves.add(Move.encode(from, to, type, flags));
+                }
+            } else {
+                moves.add(Move.encode(from, to, null, flags));
+            }
+            targets = Bitboard.popFirst(targets);
+        }
+    }
+}
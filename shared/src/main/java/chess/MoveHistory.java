@@ -0,0 +1,69 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * The undo stack behind {@link ChessGame#doMove} and {@link ChessGame#undoMove}.
+ * <p>
+ * Each entry is the move, the piece that moved, the piece it captured and whose
+ * turn it was, kept in parallel arrays that only grow, so pushing and popping
+ * doesn't allocate once the stack is as deep as the game has been.
+ */
+final class MoveHistory {
+    private int[] moves = new int[64];
+    private ChessPiece[] moved = new ChessPiece[64];
+    private ChessPiece[] captured = new ChessPiece[64];
+    private ChessGame.TeamColor[] turns = new ChessGame.TeamColor[64];
+    private int size;
+
+    void push(int move, ChessPiece piece, ChessPiece capture, ChessGame.TeamColor turn) {
+        if (size == moves.length) {
+            int capacity = size * 2;
+            moves = Arrays.copyOf(moves, capacity);
+            moved = Arrays.copyOf(moved, capacity);
+            captured = Arrays.copyOf(captured, capacity);
+            turns = Arrays.copyOf(turns, capacity);
+        }
+        moves[size] = move;
+        moved[size] = piece;
+        captured[size] = capture;
+        turns[size] = turn;
+        size++;
+    }
+
+    /**
+     * Drops the top entry. Read it with the accessors first.
+     */
+    void pop() {
+        size--;
+        // Don't hold on to pieces that are no longer part of the game
+        moved[size] = null;
+        captured[size] = null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int move() {
+        return moves[size - 1];
+    }
+
+    ChessPiece moved() {
+        return moved[size - 1];
+    }
+
+    ChessPiece captured() {
+        return captured[size - 1];
+    }
+
+    ChessGame.TeamColor turn() {
+        return turns[size - 1];
+    }
+
+    void clear() {
+        Arrays.fill(moved, 0, size, null);
+        Arrays.fill(captured, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,88 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * A growable list of packed moves (see {@link Move}) that move generators fill in place.
+ * <p>
+ * Clearing a list keeps its array, so code that generates moves over and over,
+ * such as a search keeping one list per depth, stops allocating once each list
+ * has grown to fit. Moves only become {@link ChessMove} objects when
+ * {@link #toChessMoves()} is called at an API boundary.
+ */
+public final class MoveList {
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        // Enough for almost any position without growing
+        this(64);
+    }
+
+    public MoveList(int capacity) {
+        this.moves = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Adds a packed move to the end of the list
+     */
+    public void add(int move) {
+        if (this.size == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, this.size * 2);
+        }
+        this.moves[this.size++] = move;
+    }
+
+    /**
+     * @return the packed move at an index
+     */
+    public int get(int index) {
+        if (index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.size);
+        }
+        return this.moves[index];
+    }
+
+    /**
+     * @return how many moves are in the list
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Empties the list, keeping its capacity
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * @return whether the list holds the same move as a packed move, ignoring flags
+     */
+    public boolean contains(int move) {
+        for (int i = 0; i < this.size; i++) {
+            if (Move.same(this.moves[i], move)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the moves as {@link ChessMove} objects
+     */
+    public Collection<ChessMove> toChessMoves() {
+        Collection<ChessMove> chessMoves = new HashSet<>(this.size * 2);
+        for (int i = 0; i < this.size; i++) {
+            chessMoves.add(Move.toChessMove(this.moves[i]));
+        }
+        return chessMoves;
+    }
+}
@@ -0,0 +1,130 @@
+package chess;
+
+import java.util.List;
+
+/**
+ * Perft ("performance test") walks the legal move tree to a fixed depth and counts
+ * the leaf positions. The counts for well-known positions are published, so a
+ * mismatch means the move generator is wrong, and the time taken gives a
+ * throughput number for move generation.
+ * <p>
+ * Run it with {@code mvn -pl shared exec:java}, optionally passing the maximum depth
+ * as {@code -Dexec.args=3}.
+ */
+public class Perft {
+
+    /**
+     * A reference position and its expected leaf counts, where {@code nodes[i]} is the
+     * count at depth {@code i + 1}. The game doesn't support castling or en passant,
+     * so each position only lists depths whose published counts include neither.
+     */
+    public record Position(String name, String fen, long... nodes) {
+    }
+
+    public static final List<Position> REFERENCE_POSITIONS = List.of(
+            new Position("initial",
+                    "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1",
+                    20, 400, 8902, 197281),
+            new Position("position 3",
+                    "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    14, 191),
+            new Position("position 4",
+                    "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    6),
+            new Position("position 6",
+                    "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    46, 2079, 89890)
+    );
+
+    /**
+     * Counts the leaf positions reachable in exactly {@code depth} legal moves. The
+     * board is changed while searching but is back in its original state afterwards.
+     *
+     * @param board the position to search from
+     * @param turn  the team to move
+     * @param depth how many moves deep to search
+     * @return the number of leaf positions
+     */
+    public static long perft(ChessBoard board, ChessGame.TeamColor turn, int depth) {
+        var game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        return perft(game, depth);
+    }
+
+    /**
+     * Counts the leaf positions reachable in exactly {@code depth} legal moves from
+     * a game's current position, playing moves with {@link ChessGame#doMove} and
+     * taking them back with {@link ChessGame#undoMove}
+     *
+     * @param game  the game to search from, left as it was found
+     * @param depth how many moves deep to search
+     * @return the number of leaf positions
+     */
+    public static long perft(ChessGame game, int depth) {
+        // One move list per ply, reused for every position searched at that depth
+        var lists = new MoveList[depth];
+        for (int i = 0; i < depth; i++) {
+            lists[i] = new MoveList();
+        }
+        return perft(game, depth, lists);
+    }
+
+    private static long perft(ChessGame game, int depth, MoveList[] lists) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (depth == 1) {
+            // Leaves don't need to be played out, only counted
+            return new LegalMoveGenerator(game.getBoard(), game.getTeamTurn()).countMoves();
+        }
+        MoveList moves = lists[depth - 1];
+        moves.clear();
+        game.legalMoves(moves);
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            nodes += perft(game, depth - 1, lists);
+            game.undoMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Runs every reference position, printing the node counts and nodes per second.
+     * Exits with a non-zero status if any count is wrong.
+     *
+     * @param args optionally, the maximum depth to run
+     */
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : Integer.MAX_VALUE;
+        long totalNodes = 0;
+        long totalNanos = 0;
+        boolean failed = false;
+
+        for (var position : REFERENCE_POSITIONS) {
+            var board = ChessBoard.fromFen(position.fen());
+            var turn = Fen.parseTurn(position.fen());
+            for (int depth = 1; depth <= Math.min(maxDepth, position.nodes().length); depth++) {
+                long start = System.nanoTime();
+                long nodes = perft(board, turn, depth);
+                long nanos = System.nanoTime() - start;
+                long expected = position.nodes()[depth - 1];
+                totalNodes += nodes;
+                totalNanos += nanos;
+
+                String result = nodes == expected ? "ok" : "FAILED (expected " + expected + ")";
+                failed |= nodes != expected;
+                System.out.printf("%-12s depth %d: %,12d nodes %,14.0f nodes/s  %s%n",
+                        position.name(), depth, nodes, nodes / (nanos / 1e9), result);
+            }
+        }
+
+        System.out.printf("total: %,d nodes in %.3f s (%,.0f nodes/s)%n",
+                totalNodes, totalNanos / 1e9, totalNodes / (totalNanos / 1e9));
+        if (failed) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package chess;
+
+/**
+ * Random 64-bit keys used to hash chess positions.
+ * <p>
+ * A position's key is the XOR of the key for every piece on its square, plus the
+ * side-to-move key when it is black's turn. Because XOR undoes itself, moving a
+ * piece only takes a couple of XORs to update the key. The keys come from a fixed
+ * seed so the same position hashes the same way on every server and client.
+ * Castling and en passant rights would get keys of their own once the game tracks them.
+ */
+public final class Zobrist {
+    private static final long[][] PIECES = new long[12][64];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        long seed = 0x2D358DCCAA6C78A5L;
+        for (int piece = 0; piece < 12; piece++) {
+            for (int square = 0; square < 64; square++) {
+                seed = next(seed);
+                PIECES[piece][square] = mix(seed);
+            }
+        }
+        BLACK_TO_MOVE = mix(next(seed));
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return the key for a piece (by bitboard index, see {@link Bitboard#pieceIndex}) on a square
+     */
+    public static long piece(int pieceIndex, int square) {
+        return PIECES[pieceIndex][square];
+    }
+
+    /**
+     * @return the key mixed in when it is the given team's turn
+     */
+    public static long side(ChessGame.TeamColor turn) {
+        return turn == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0L;
+    }
+
+    private static long next(long seed) {
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    private static long mix(long z) {
+        // splitmix64 finalizer
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
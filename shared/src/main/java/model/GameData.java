@@ -11,8 +11,25 @@ import java.util.Objects;
  * @param blackUsername String - username of the player playing BLACK
  * @param gameName String - name of the current game
  * @param game ChessGame - contains the current game state
+ * @param version int - how many times the game has changed, so a change can be made only
+ *                if nobody else changed the game first; it isn't part of equality
  */
-public record GameData(Integer gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {
+public record GameData(Integer gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game, int version) {
+    /**
+     * Creates the data for a game at version 0, as it is when first created
+     */
+    public GameData(Integer gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {
+        this(gameID, whiteUsername, blackUsername, gameName, game, 0);
+    }
+
+    /**
+     * @param version the version to give the game
+     * @return the same game data with a different version
+     */
+    public GameData withVersion(int version) {
+        return new GameData(gameID, whiteUsername, blackUsername, gameName, game, version);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
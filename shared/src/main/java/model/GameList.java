@@ -2,5 +2,10 @@ package model;
 
 import java.util.ArrayList;
 
-public record GameList(ArrayList<GameResponseData> games) {
+/**
+ * One page of games from the server
+ * @param games the games on the page
+ * @param next the gameID to list the next page after, null if this is the last page
+ */
+public record GameList(ArrayList<GameResponseData> games, Integer next) {
 }
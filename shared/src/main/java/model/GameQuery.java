@@ -0,0 +1,85 @@
+package model;
+
+/**
+ * One page of a game listing, with optional filters. Games are listed in order of
+ * gameID, and a page starts after the gameID of the last game on the page before,
+ * so pages stay consistent while games are created.
+ * @param limit the most games to list
+ * @param after list only games with a gameID greater than this, null to start at the first
+ * @param openSeat true for only games with a seat free, false for only full games, null for either
+ * @param player list only games this username is playing in, null for any
+ * @param namePrefix list only games whose name starts with this, null for any
+ * @param finished true for only games that are over, false for only games still going, null for either
+ */
+public record GameQuery(int limit, Integer after, Boolean openSeat, String player, String namePrefix, Boolean finished) {
+
+    public GameQuery {
+        if (limit < 1) {
+            throw new IllegalArgumentException("A page must hold at least one game");
+        }
+    }
+
+    /**
+     * @param limit the most games to list
+     * @return a query for the first page of every game
+     */
+    public static GameQuery page(int limit) {
+        return new GameQuery(limit, null, null, null, null, null);
+    }
+
+    /**
+     * @return a query for every game on a single page
+     */
+    public static GameQuery all() {
+        return page(Integer.MAX_VALUE);
+    }
+
+    public GameQuery withLimit(int limit) {
+        return new GameQuery(limit, after, openSeat, player, namePrefix, finished);
+    }
+
+    public GameQuery withAfter(Integer after) {
+        return new GameQuery(limit, after, openSeat, player, namePrefix, finished);
+    }
+
+    public GameQuery withOpenSeat(Boolean openSeat) {
+        return new GameQuery(limit, after, openSeat, player, namePrefix, finished);
+    }
+
+    public GameQuery withPlayer(String player) {
+        return new GameQuery(limit, after, openSeat, player, namePrefix, finished);
+    }
+
+    public GameQuery withNamePrefix(String namePrefix) {
+        return new GameQuery(limit, after, openSeat, player, namePrefix, finished);
+    }
+
+    public GameQuery withFinished(Boolean finished) {
+        return new GameQuery(limit, after, openSeat, player, namePrefix, finished);
+    }
+
+    /**
+     * Checks a game against everything but the limit
+     * @param gameID the ID of the game
+     * @param whiteUsername the username playing WHITE, null if the seat is free
+     * @param blackUsername the username playing BLACK, null if the seat is free
+     * @param gameName the name of the game
+     * @param over whether the game is over
+     * @return true if the game belongs in the listing
+     */
+    public boolean matches(int gameID, String whiteUsername, String blackUsername, String gameName, boolean over) {
+        if (after != null && gameID <= after) {
+            return false;
+        }
+        if (openSeat != null && openSeat != (whiteUsername == null || blackUsername == null)) {
+            return false;
+        }
+        if (player != null && !player.equals(whiteUsername) && !player.equals(blackUsername)) {
+            return false;
+        }
+        if (namePrefix != null && (gameName == null || !gameName.startsWith(namePrefix))) {
+            return false;
+        }
+        return finished == null || finished == over;
+    }
+}
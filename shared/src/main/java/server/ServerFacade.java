@@ -6,7 +6,9 @@ import model.*;
 
 import java.io.*;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.StringJoiner;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -14,7 +16,10 @@ import java.util.concurrent.ConcurrentHashMap;
  * creating a game, registering and logging in users, listing available games, clearing the database, etc.
  */
 public class ServerFacade {
+    private static final int PAGE_SIZE = 100;
+
     private final String serverUrl;
+    private final ConcurrentHashMap<Integer, CachedGame> games = new ConcurrentHashMap<>();
     private String authToken;
 
     /**
@@ -93,19 +98,71 @@ public class ServerFacade {
     }
 
     /**
-     * Retrieves a collection of available games from the server.
+     * Retrieves every game from the server, a page at a time.
      *
-     * @return A collection of game response data.
+     * @return A collection of game response data, in order of game ID.
      * @throws ResponseException if the server responds with an error.
      */
     public ArrayList<GameResponseData> listGames() throws ResponseException {
-        var path = "/game";
-        return this.makeRequest("GET", path, null, GameList.class).games();
+        ArrayList<GameResponseData> games = new ArrayList<>();
+        GameQuery query = GameQuery.page(PAGE_SIZE);
+        while (true) {
+            GameList page = listGames(query);
+            games.addAll(page.games());
+            if (page.next() == null) {
+                return games;
+            }
+            query = query.withAfter(page.next());
+        }
+    }
+
+    /**
+     * Retrieves one page of the games that match a query from the server.
+     *
+     * @param query The filters, page size and where the page starts.
+     * @return The games on the page, and the game ID to start the next page after.
+     * @throws ResponseException if the server responds with an error.
+     */
+    public GameList listGames(GameQuery query) throws ResponseException {
+        var path = "/game?" + queryString(query);
+        return this.makeRequest("GET", path, null, GameList.class);
     }
 
-    public ConcurrentHashMap<Integer, GameData> getGameObjects() throws ResponseException {
-        var path = "/objects";
-        return this.makeRequest("GET", path, null, GameObjects.class).gameObjects();
+    /**
+     * Retrieves one game, including its board, from the server.
+     * The last copy of each game fetched is kept with its ETag, and the server only sends
+     * the game again if it has changed since.
+     *
+     * @param gameID The ID of the game.
+     * @return The game's data.
+     * @throws ResponseException if the server responds with an error, such as 404 if there's no such game.
+     */
+    public GameData getGame(int gameID) throws ResponseException {
+        CachedGame cached = games.get(gameID);
+        try {
+            HttpURLConnection http = openConnection("GET", "/game/" + gameID);
+            if (cached != null) {
+                http.setRequestProperty("If-None-Match", cached.etag());
+            }
+            http.connect();
+            if (cached != null && http.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return cached.gameData();
+            }
+            throwIfNotSuccessful(http);
+
+            GameData gameData = readBody(http, GameData.class);
+            String etag = http.getHeaderField("ETag");
+            if (gameData != null && etag != null) {
+                games.put(gameID, new CachedGame(etag, gameData));
+            } else {
+                games.remove(gameID);
+            }
+            return gameData;
+        } catch (ResponseException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ResponseException(500, e.getMessage());
+        }
     }
 
     /**
@@ -118,16 +175,42 @@ public class ServerFacade {
         this.makeRequest("DELETE", path, null, null);
     }
 
+    private static String queryString(GameQuery query) {
+        var params = new StringJoiner("&");
+        params.add("limit=" + query.limit());
+        if (query.after() != null) {
+            params.add("after=" + query.after());
+        }
+        if (query.openSeat() != null) {
+            params.add("open=" + query.openSeat());
+        }
+        if (query.player() != null) {
+            params.add("player=" + URLEncoder.encode(query.player(), StandardCharsets.UTF_8));
+        }
+        if (query.namePrefix() != null) {
+            params.add("prefix=" + URLEncoder.encode(query.namePrefix(), StandardCharsets.UTF_8));
+        }
+        if (query.finished() != null) {
+            params.add("finished=" + query.finished());
+        }
+        return params.toString();
+    }
+
+    private HttpURLConnection openConnection(String method, String path) throws URISyntaxException, IOException {
+        URL url = (new URI(serverUrl + path)).toURL();
+        HttpURLConnection http = (HttpURLConnection) url.openConnection();
+        http.setRequestMethod(method);
+        http.setDoOutput(true);
+
+        if (authToken != null) {
+            http.setRequestProperty("authorization", authToken);
+        }
+        return http;
+    }
+
     private <T> T makeRequest (String method, String path, Object request, Class<T> responseClass) throws ResponseException {
         try {
-            URL url = (new URI(serverUrl + path)).toURL();
-            HttpURLConnection http = (HttpURLConnection) url.openConnection();
-            http.setRequestMethod(method);
-            http.setDoOutput(true);
-
-            if (authToken != null) {
-                http.setRequestProperty("authorization", authToken);
-            }
+            HttpURLConnection http = openConnection(method, path);
 
             writeBody(request, http);
             http.connect();
@@ -172,4 +255,7 @@ public class ServerFacade {
     private boolean isSuccessful(int status) {
         return status / 100 == 2;
     }
+
+    private record CachedGame(String etag, GameData gameData) {
+    }
 }
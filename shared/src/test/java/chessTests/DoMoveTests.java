@@ -0,0 +1,50 @@
+package chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DoMoveTests {
+
+    @Test
+    void testUndoRestoresCaptureAndPromotion() {
+        ChessGame game = new ChessGame();
+        game.setBoard(ChessBoard.fromFen("4k3/1P6/8/8/8/8/8/r3K3 w - - 0 1"));
+        long key = game.getZobristKey();
+
+//        The pawn promotes on b8, then the rook takes the new queen
+        int promote = Move.encode(Bitboard.square(7, 2), Bitboard.square(8, 2), ChessPiece.PieceType.QUEEN);
+        game.doMove(promote);
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN),
+                game.getBoard().getPiece(new ChessPosition(8, 2)));
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+
+        game.doMove(Move.encode(Bitboard.square(1, 1), Bitboard.square(8, 1), null));
+        game.undoMove();
+        game.undoMove();
+
+        Assertions.assertEquals(ChessBoard.fromFen("4k3/1P6/8/8/8/8/8/r3K3 w - - 0 1"), game.getBoard());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        Assertions.assertEquals(key, game.getZobristKey());
+    }
+
+    @Test
+    void testUndoMakeMove() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.undoMove();
+
+        Assertions.assertEquals(new ChessGame().getBoard(), game.getBoard());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        Assertions.assertThrows(IllegalStateException.class, game::undoMove);
+    }
+
+    @Test
+    void testMoveEncoding() {
+        var move = new ChessMove(new ChessPosition(7, 8), new ChessPosition(8, 7), ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals(move, Move.toChessMove(Move.of(move)));
+
+        var quiet = new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 8), null);
+        Assertions.assertEquals(quiet, Move.toChessMove(Move.of(quiet)));
+    }
+}
@@ -0,0 +1,90 @@
+package chessTests;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import chess.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import passoffTests.TestFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class FenTests {
+
+    @Test
+    void testStartingPosition() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(Fen.START, game.toFen());
+
+        ChessGame loaded = ChessGame.fromFen(Fen.START);
+        Assertions.assertEquals(game.getBoard(), loaded.getBoard());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, loaded.getTeamTurn());
+        Assertions.assertEquals(game.getZobristKey(), loaded.getZobristKey());
+    }
+
+    @Test
+    void testTurn() {
+        for (var turn : ChessGame.TeamColor.values()) {
+            ChessGame game = new ChessGame();
+            game.setTeamTurn(turn);
+            Assertions.assertEquals(turn, ChessGame.fromFen(game.toFen()).getTeamTurn());
+        }
+    }
+
+    @Test
+    void testReferencePositions() {
+        for (var position : Perft.REFERENCE_POSITIONS) {
+            ChessBoard board = ChessBoard.fromFen(position.fen());
+            Assertions.assertEquals(position.fen().split(" ")[0], board.toFen(), position.name());
+        }
+    }
+
+    @Test
+    void testPassoffPositions() throws IOException {
+        var boards = passoffBoards();
+        Assertions.assertFalse(boards.isEmpty(), "No passoff boards found");
+        for (var boardText : boards) {
+            ChessBoard board = TestFactory.loadBoard(boardText);
+            Assertions.assertEquals(board, ChessBoard.fromFen(board.toFen()), boardText);
+        }
+    }
+
+    @Test
+    void testMalformed() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessBoard.fromFen("8/8/8/8/8/8/8 w - - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessBoard.fromFen("9/8/8/8/8/8/8/8 w - - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessBoard.fromFen("8/8/8/8/8/8/8/ppppppppp w"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessBoard.fromFen("8/8/8/8/8/8/8/7x w"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/8 x"));
+    }
+
+    /**
+     * Collects every board drawn in a text block in the passoff tests
+     */
+    private static List<String> passoffBoards() throws IOException {
+        Path root = Path.of("src/test/java/passoffTests");
+        if (!Files.isDirectory(root)) {
+            root = Path.of("shared").resolve(root);
+        }
+        var textBlock = Pattern.compile("\"\"\"\\s*\\n(.*?)\"\"\"", Pattern.DOTALL);
+        var boards = new ArrayList<String>();
+        try (var files = Files.walk(root)) {
+            for (var file : files.filter(f -> f.toString().endsWith(".java")).toList()) {
+                var matcher = textBlock.matcher(Files.readString(file));
+                while (matcher.find()) {
+                    var rows = matcher.group(1).strip().lines().map(String::strip).toList();
+                    if (rows.size() == 8 && rows.stream().allMatch(row -> row.startsWith("|"))) {
+                        boards.add(String.join("\n", rows) + "\n");
+                    }
+                }
+            }
+        }
+        return boards;
+    }
+}
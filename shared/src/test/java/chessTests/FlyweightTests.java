@@ -0,0 +1,36 @@
+package chessTests;
+
+import chess.*;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FlyweightTests {
+
+    @Test
+    void testCanonicalInstances() {
+        Assertions.assertSame(ChessPosition.of(3, 4), ChessPosition.of(3, 4));
+        Assertions.assertEquals(new ChessPosition(3, 4), ChessPosition.of(3, 4));
+        Assertions.assertEquals(new ChessPosition(0, 9), ChessPosition.of(0, 9));
+
+        Assertions.assertSame(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK),
+                ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN),
+                ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+    }
+
+    @Test
+    void testSerializedGame() {
+        var gson = new Gson();
+        ChessGame game = new ChessGame();
+        String json = gson.toJson(game);
+        Assertions.assertTrue(json.contains("{\"color\":\"WHITE\",\"type\":\"ROOK\"}"));
+
+//        Deserialized pieces are swapped for the shared ones the first time the board is used
+        ChessGame copy = gson.fromJson(json, ChessGame.class);
+        Assertions.assertEquals(game.getBoard(), copy.getBoard());
+        Assertions.assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK),
+                copy.getBoard().getPiece(ChessPosition.of(1, 1)));
+        Assertions.assertEquals(json, gson.toJson(copy));
+    }
+}
@@ -0,0 +1,42 @@
+package chessTests;
+
+import chess.ChessGame;
+import chess.GameCodec;
+import chess.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GameCodecTests {
+
+    @Test
+    void testRoundTrip() {
+        for (var position : Perft.REFERENCE_POSITIONS) {
+            for (var turn : ChessGame.TeamColor.values()) {
+                ChessGame game = ChessGame.fromFen(position.fen());
+                game.setTeamTurn(turn);
+
+                byte[] bytes = GameCodec.encode(game);
+                Assertions.assertEquals(GameCodec.LENGTH, bytes.length);
+
+                ChessGame decoded = GameCodec.decode(bytes);
+                Assertions.assertEquals(game.getBoard(), decoded.getBoard(), position.name());
+                Assertions.assertEquals(turn, decoded.getTeamTurn());
+            }
+        }
+    }
+
+    @Test
+    void testBadState() {
+        byte[] bytes = GameCodec.encode(new ChessGame());
+
+        bytes[0] = 2;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(bytes));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[0]));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[]{GameCodec.VERSION, 0}));
+
+//        Nibble 15 isn't a piece
+        byte[] corrupt = GameCodec.encode(new ChessGame());
+        corrupt[20] = (byte) 0xF0;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(corrupt));
+    }
+}
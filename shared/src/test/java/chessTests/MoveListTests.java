@@ -0,0 +1,56 @@
+package chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+public class MoveListTests {
+
+    @Test
+    void testFlags() {
+        ChessGame game = new ChessGame();
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+
+        int doublePushes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            Assertions.assertFalse(Move.isCapture(moves.get(i)));
+            if ((moves.get(i) & Move.DOUBLE_PUSH) != 0) {
+                doublePushes++;
+            }
+        }
+        Assertions.assertEquals(20, moves.size());
+        Assertions.assertEquals(8, doublePushes);
+
+//        Only the pawn can take the knight
+        game.setBoard(ChessBoard.fromFen("4k3/8/8/3n4/4P3/8/8/4K3 w - - 0 1"));
+        moves.clear();
+        game.legalMoves(moves);
+        int capture = Move.encode(Bitboard.square(4, 5), Bitboard.square(5, 4), null);
+        Assertions.assertTrue(moves.contains(capture));
+        for (int i = 0; i < moves.size(); i++) {
+            Assertions.assertEquals(Move.same(moves.get(i), capture), Move.isCapture(moves.get(i)));
+        }
+    }
+
+    @Test
+    void testMatchesValidMoves() {
+        ChessGame game = new ChessGame();
+        game.setBoard(ChessBoard.fromFen(Perft.REFERENCE_POSITIONS.get(2).fen()));
+        MoveList moves = new MoveList(1);
+        game.legalMoves(moves);
+
+        var expected = new HashSet<ChessMove>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                var piece = game.getBoard().getPiece(new ChessPosition(row, col));
+                if (piece != null && piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
+                    expected.addAll(game.validMoves(new ChessPosition(row, col)));
+                }
+            }
+        }
+        Assertions.assertEquals(expected, moves.toChessMoves());
+    }
+}
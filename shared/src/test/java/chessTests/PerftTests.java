@@ -0,0 +1,35 @@
+package chessTests;
+
+import chess.ChessBoard;
+import chess.Fen;
+import chess.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PerftTests {
+
+    @Test
+    void testReferencePositions() {
+        for (var position : Perft.REFERENCE_POSITIONS) {
+            ChessBoard board = ChessBoard.fromFen(position.fen());
+            for (int depth = 1; depth <= position.nodes().length; depth++) {
+                Assertions.assertEquals(position.nodes()[depth - 1],
+                        Perft.perft(board, Fen.parseTurn(position.fen()), depth),
+                        position.name() + " at depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    void testBoardRestored() {
+        var position = Perft.REFERENCE_POSITIONS.get(0);
+        ChessBoard board = ChessBoard.fromFen(position.fen());
+        long key = board.getZobristKey();
+
+        Perft.perft(board, Fen.parseTurn(position.fen()), 3);
+
+//        The search should leave the board (and its incrementally kept key) exactly as it found it
+        Assertions.assertEquals(ChessBoard.fromFen(position.fen()), board);
+        Assertions.assertEquals(key, board.getZobristKey());
+    }
+}